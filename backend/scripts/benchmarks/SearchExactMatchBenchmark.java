@@ -0,0 +1,167 @@
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.harmadavtian.disneyapp.dto.search.HighlightRangeDto;
+import com.harmadavtian.disneyapp.service.search.SearchHighlightingUtils;
+import com.harmadavtian.disneyapp.service.search.index.CategoryIndex;
+import com.harmadavtian.disneyapp.service.search.index.FieldIndex;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Before/after benchmark for exact (whole-word) search over the full seeded
+ * dataset (database/*.json, the same files DataSeeder loads).
+ *
+ * Before: the original per-request scan - every field of every entity is
+ * lower-cased and matched with a freshly compiled \bquery\b regex.
+ * After: term-dictionary candidates from the search index, verified against
+ * values lower-cased at index time, with no regex.
+ *
+ * Usage (from backend/, after mvn compile; needs jackson on the classpath):
+ *
+ * java -cp "target/classes:<jackson-databind/core/annotations jars>" \
+ *     scripts/benchmarks/SearchExactMatchBenchmark.java
+ */
+public class SearchExactMatchBenchmark {
+
+    private static final String DATA_DIR = "src/main/resources/database/";
+    private static final String[] QUERIES = { "frozen", "princess", "the", "star wars", "mickey mouse", "toy",
+            "space mountain", "pirates", "r2-d2", "zzzz" };
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 100;
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Category> categories = new LinkedHashMap<>();
+        categories.put("movies", load(mapper, "disney_movies.json",
+                List.of("title", "short_description", "long_description", "creation_year", "hidden_tags",
+                        "movie_rating")));
+        categories.put("characters", load(mapper, "disney_characters.json",
+                List.of("name", "short_description", "long_description", "first_appearance", "franchise",
+                        "character_type")));
+        categories.put("parks", load(mapper, "disney_parks_attractions.json",
+                List.of("name", "short_description", "theme", "land_area", "attraction_type", "thrill_level")));
+
+        int documents = categories.values().stream().mapToInt(category -> category.documents.size()).sum();
+        System.out.printf("Dataset: %d documents across %d categories (extended scope fields)%n%n", documents,
+                categories.size());
+
+        for (String query : QUERIES) {
+            long before = legacyMatches(categories, query);
+            long after = indexedMatches(categories, query);
+            if (before != after) {
+                throw new IllegalStateException("Result mismatch for '" + query + "': " + before + " vs " + after);
+            }
+        }
+
+        System.out.printf("%-16s %8s %14s %14s %9s%n", "query", "matches", "before (us)", "after (us)", "speedup");
+        double totalBefore = 0;
+        double totalAfter = 0;
+        for (String query : QUERIES) {
+            double before = time(() -> legacyMatches(categories, query));
+            double after = time(() -> indexedMatches(categories, query));
+            totalBefore += before;
+            totalAfter += after;
+            System.out.printf("%-16s %8d %14.1f %14.1f %8.1fx%n", "'" + query + "'",
+                    indexedMatches(categories, query), before, after, before / after);
+        }
+        System.out.printf("%-16s %8s %14.1f %14.1f %8.1fx%n", "all queries", "", totalBefore, totalAfter,
+                totalBefore / totalAfter);
+    }
+
+    private static Category load(ObjectMapper mapper, String file, List<String> fields) throws Exception {
+        List<Map<String, Object>> documents = mapper.readValue(new File(DATA_DIR + file),
+                new TypeReference<List<Map<String, Object>>>() {
+                });
+        Map<String, Function<Map<String, Object>, String>> extractors = new LinkedHashMap<>();
+        for (String field : fields) {
+            extractors.put(field, document -> document.get(field) == null ? null : String.valueOf(document.get(field)));
+        }
+        return new Category(documents, fields, extractors, CategoryIndex.build(documents, fields, extractors));
+    }
+
+    /**
+     * The pre-index exact path, kept verbatim for comparison.
+     */
+    private static long legacyMatches(Map<String, Category> categories, String query) {
+        long matches = 0;
+        for (Category category : categories.values()) {
+            for (Map<String, Object> document : category.documents) {
+                boolean matched = false;
+                for (String field : category.fields) {
+                    if (!legacyExact(category.extractors.get(field).apply(document), query).isEmpty()) {
+                        matched = true;
+                    }
+                }
+                if (matched) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static List<HighlightRangeDto> legacyExact(String value, String query) {
+        List<HighlightRangeDto> ranges = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return ranges;
+        }
+        String lowerValue = value.toLowerCase(Locale.ROOT);
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        Pattern regex = Pattern.compile("\\b" + Pattern.quote(lowerQuery) + "\\b");
+        Matcher matcher = regex.matcher(lowerValue);
+        while (matcher.find() && ranges.size() < 5) {
+            ranges.add(new HighlightRangeDto(matcher.start(), matcher.end()));
+        }
+        return ranges;
+    }
+
+    private static long indexedMatches(Map<String, Category> categories, String query) {
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        long matches = 0;
+        for (Category category : categories.values()) {
+            CategoryIndex<Map<String, Object>> index = category.index;
+            for (int doc : index.candidates(category.fields, lowerQuery, true)) {
+                boolean matched = false;
+                for (String field : category.fields) {
+                    FieldIndex fieldIndex = index.field(field);
+                    if (SearchHighlightingUtils.compute(fieldIndex.value(doc), fieldIndex.lowerValue(doc), lowerQuery,
+                            false, "exact").isPresent()) {
+                        matched = true;
+                    }
+                }
+                if (matched) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return Mean microseconds per call after warm-up
+     */
+    private static double time(Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / MEASURED_ROUNDS;
+    }
+
+    private record Category(List<Map<String, Object>> documents,
+            List<String> fields,
+            Map<String, Function<Map<String, Object>, String>> extractors,
+            CategoryIndex<Map<String, Object>> index) {
+    }
+}
@@ -0,0 +1,169 @@
+import com.harmadavtian.disneyapp.service.vector.MappedEmbeddingStore;
+import com.harmadavtian.disneyapp.service.vector.SimilarityKernel;
+import com.harmadavtian.disneyapp.service.vector.SimilarityKernels;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Scalar vs Vector API similarity kernels, plus the original
+ * RagService.cosineSimilarity (dot product and both norms per call), over
+ * random 768-dimensional vectors (the Gemini embedding size).
+ *
+ * Measures a single dot product and an exact brute-force top-10 over the
+ * whole corpus. All kernels must return the same top-10.
+ *
+ * Usage (from backend/, after mvn compile; needs slf4j-api on the classpath):
+ *
+ * java --add-modules jdk.incubator.vector -cp "target/classes:<slf4j-api jar>" \
+ *     scripts/benchmarks/SimilarityKernelBenchmark.java [corpus size]
+ *
+ * Without --add-modules only the scalar kernel is measured.
+ */
+public class SimilarityKernelBenchmark {
+
+    private static final int DIMENSIONS = 768;
+    private static final int TOP_K = 10;
+    private static final int QUERIES = 20;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    public static void main(String[] args) {
+        int corpusSize = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        SplittableRandom random = new SplittableRandom(7);
+        float[] corpus = new float[corpusSize * DIMENSIONS];
+        for (int row = 0; row < corpusSize; row++) {
+            System.arraycopy(MappedEmbeddingStore.unit(randomVector(random)), 0, corpus, row * DIMENSIONS,
+                    DIMENSIONS);
+        }
+        float[][] rawQueries = new float[QUERIES][];
+        float[][] unitQueries = new float[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) {
+            rawQueries[q] = randomVector(random);
+            unitQueries[q] = MappedEmbeddingStore.unit(rawQueries[q]);
+        }
+
+        SimilarityKernel scalar = SimilarityKernels.scalar();
+        SimilarityKernel vector = SimilarityKernels.vectorApi().orElse(null);
+        System.out.printf("Corpus: %,d x %d dimensions, %d queries, top-%d%n", corpusSize, DIMENSIONS, QUERIES,
+                TOP_K);
+        System.out.printf("Vector API: %s%n%n", vector == null ? "not available (scalar only)" : vector.name());
+
+        for (int q = 0; q < QUERIES; q++) {
+            int[] expected = topK(corpus, corpusSize, unitQueries[q], scalar);
+            if (!Arrays.equals(expected, legacyTopK(corpus, corpusSize, rawQueries[q]))
+                    || (vector != null && !Arrays.equals(expected, topK(corpus, corpusSize, unitQueries[q], vector)))) {
+                throw new IllegalStateException("Top-" + TOP_K + " mismatch for query " + q);
+            }
+        }
+
+        System.out.printf("%-28s %14s %18s%n", "kernel", "dot (ns)", "top-10 scan (us)");
+        double legacyDot = time(() -> {
+            for (int row = 0; row < corpusSize; row++) {
+                legacyCosine(rawQueries[0], copyRow(corpus, row));
+            }
+        }) * 1_000 / corpusSize;
+        double legacyScan = time(() -> {
+            for (float[] query : rawQueries) {
+                legacyTopK(corpus, corpusSize, query);
+            }
+        }) / QUERIES;
+        System.out.printf("%-28s %14.1f %18.1f%n", "cosineSimilarity (before)", legacyDot, legacyScan);
+        report(scalar, corpus, corpusSize, unitQueries, legacyScan);
+        if (vector != null) {
+            report(vector, corpus, corpusSize, unitQueries, legacyScan);
+        }
+    }
+
+    private static void report(SimilarityKernel kernel, float[] corpus, int corpusSize, float[][] queries,
+            double baseline) {
+        double dot = time(() -> {
+            for (int row = 0; row < corpusSize; row++) {
+                kernel.dot(corpus, row * DIMENSIONS, queries[0], 0, DIMENSIONS);
+            }
+        }) * 1_000 / corpusSize;
+        double scan = time(() -> {
+            for (float[] query : queries) {
+                topK(corpus, corpusSize, query, kernel);
+            }
+        }) / QUERIES;
+        System.out.printf("%-28s %14.1f %18.1f   %.1fx%n", kernel.name(), dot, scan, baseline / scan);
+    }
+
+    private static int[] topK(float[] corpus, int corpusSize, float[] unitQuery, SimilarityKernel kernel) {
+        double[] scores = new double[corpusSize];
+        for (int row = 0; row < corpusSize; row++) {
+            scores[row] = kernel.dot(corpus, row * DIMENSIONS, unitQuery, 0, DIMENSIONS);
+        }
+        return best(scores);
+    }
+
+    /**
+     * The pre-kernel path: norms of both vectors recomputed on every call.
+     */
+    private static int[] legacyTopK(float[] corpus, int corpusSize, float[] query) {
+        double[] scores = new double[corpusSize];
+        for (int row = 0; row < corpusSize; row++) {
+            scores[row] = legacyCosine(query, copyRow(corpus, row));
+        }
+        return best(scores);
+    }
+
+    private static double legacyCosine(float[] a, float[] b) {
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    private static float[] copyRow(float[] corpus, int row) {
+        return Arrays.copyOfRange(corpus, row * DIMENSIONS, (row + 1) * DIMENSIONS);
+    }
+
+    /**
+     * Indexes of the {@link #TOP_K} highest scores, best first. Scores are
+     * rounded to 1e-5 so float accumulation order cannot reorder near-ties.
+     */
+    private static int[] best(double[] scores) {
+        Integer[] order = new Integer[scores.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byScore = Long.compare(Math.round(scores[b] * 1e5), Math.round(scores[a] * 1e5));
+            return byScore != 0 ? byScore : Integer.compare(a, b);
+        });
+        int[] top = new int[Math.min(TOP_K, order.length)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = order[i];
+        }
+        return top;
+    }
+
+    private static float[] randomVector(SplittableRandom random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    /**
+     * @return Mean microseconds per call after warm-up
+     */
+    private static double time(Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / MEASURED_ROUNDS;
+    }
+}
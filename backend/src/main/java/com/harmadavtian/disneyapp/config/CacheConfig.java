@@ -10,7 +10,7 @@ import org.springframework.context.annotation.Configuration;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Spring Cache configuration for RAG queries.
+ * Spring Cache configuration for RAG queries and /api/search responses.
  * 
  * Uses Caffeine in-memory cache with TTL to prevent stale results.
  * Cache key format: {query}_{contentType}
@@ -21,6 +21,23 @@ import java.util.concurrent.TimeUnit;
  * - Max size: 500 entries
  * - Eviction: LRU (Least Recently Used)
  * 
+ * Query embedding strategy:
+ * - Cache name: "rag-query-embeddings"
+ * - Key: embedding model name + normalized query text (no content type or
+ *   topK, so changing filters reuses the embedding)
+ * - Value: the query vector as a float[]
+ * - Bounded by weight (~8 MB of vectors), idle expiry 1 hour
+ * - Hit/miss stats recorded (/actuator/metrics/cache.gets?tag=cache:rag-query-embeddings)
+ * 
+ * Search strategy:
+ * - Cache name: "search-results"
+ * - Key: normalized (query, categories, scopes, limit, matchMode, highlights,
+ *   filters, facets) plus the search index generation, so a reseed never
+ *   serves stale results
+ * - TTL: 10 minutes, max 1000 entries
+ * - Hit/miss stats recorded and published as actuator metrics
+ *   (/actuator/metrics/cache.gets?tag=cache:search-results)
+ * 
  * Production considerations:
  * - For high traffic, consider Redis cache
  * - For multi-instance, use distributed cache
@@ -49,6 +66,19 @@ public class CacheConfig {
         cacheManager.setCaffeine(Caffeine.newBuilder()
                 .expireAfterWrite(5, TimeUnit.MINUTES)
                 .maximumSize(500));
+        cacheManager.registerCustomCache("rag-query-embeddings", Caffeine.newBuilder()
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .maximumWeight(8L * 1024 * 1024)
+                .<Object, Object>weigher((key, value) -> value instanceof float[] vector
+                        ? vector.length * Float.BYTES
+                        : 1)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache("search-results", Caffeine.newBuilder()
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .maximumSize(1000)
+                .recordStats()
+                .build());
         return cacheManager;
     }
 }
@@ -0,0 +1,43 @@
+package com.harmadavtian.disneyapp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for request-scoped fan-out work.
+ *
+ * Uses Java 21 virtual threads: a thread per task is cheap and needs no pool
+ * sizing, whether the task is short CPU-bound work over in-memory data or
+ * waits on a remote API.
+ *
+ * @author Harma Davtian
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Runs the per-category work of a single /api/search request concurrently.
+     *
+     * @return Virtual-thread-per-task executor, closed on shutdown
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService searchExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Runs the RAG pipeline stages (embedding, retrieval, prompt, citations,
+     * generation) and /api/rag/query/stream requests, so servlet threads are
+     * not held while waiting on the LLM. A task blocked on outbound HTTP for
+     * seconds costs a virtual thread nothing.
+     *
+     * @return Virtual-thread-per-task executor, closed on shutdown
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService ragExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
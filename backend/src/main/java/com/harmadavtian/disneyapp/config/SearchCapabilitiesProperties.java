@@ -1,5 +1,6 @@
 package com.harmadavtian.disneyapp.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -43,6 +44,11 @@ public class SearchCapabilitiesProperties {
         private String label;
         @NotEmpty
         private Map<String, Scope> scopes = new LinkedHashMap<>();
+        /**
+         * Relevance weight per field name used to rank results; fields not
+         * listed weigh 1.0. Server-side only, not exposed to the UI.
+         */
+        private Map<String, Double> fieldWeights = new LinkedHashMap<>();
 
         public String getLabel() {
             return label;
@@ -59,6 +65,19 @@ public class SearchCapabilitiesProperties {
         public void setScopes(Map<String, Scope> scopes) {
             this.scopes = scopes;
         }
+
+        @JsonIgnore
+        public Map<String, Double> getFieldWeights() {
+            return fieldWeights;
+        }
+
+        public void setFieldWeights(Map<String, Double> fieldWeights) {
+            this.fieldWeights = fieldWeights;
+        }
+
+        public double weightOf(String field) {
+            return fieldWeights.getOrDefault(field, 1.0);
+        }
     }
 
     public static class Scope {
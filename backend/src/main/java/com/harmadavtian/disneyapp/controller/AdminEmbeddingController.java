@@ -2,6 +2,8 @@ package com.harmadavtian.disneyapp.controller;
 
 import com.harmadavtian.disneyapp.service.AdminAuthService;
 import com.harmadavtian.disneyapp.service.EmbeddingService;
+import com.harmadavtian.disneyapp.service.SemanticAnswerCache;
+import com.harmadavtian.disneyapp.service.vector.VectorIndexService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -25,6 +27,8 @@ import java.util.Map;
  * - Batch embedding generation
  * - Embedding statistics
  * - Re-embedding content
+ * - Semantic answer cache purge
+ * - Vector index recall report
  * 
  * All endpoints require admin API key authentication.
  * 
@@ -40,12 +44,17 @@ public class AdminEmbeddingController {
         private final EmbeddingService embeddingService;
         private final AdminAuthService adminAuthService;
         private final CacheManager cacheManager;
+        private final VectorIndexService vectorIndexService;
+        private final SemanticAnswerCache semanticAnswerCache;
 
         public AdminEmbeddingController(EmbeddingService embeddingService, AdminAuthService adminAuthService,
-                        CacheManager cacheManager) {
+                        CacheManager cacheManager, VectorIndexService vectorIndexService,
+                        SemanticAnswerCache semanticAnswerCache) {
                 this.embeddingService = embeddingService;
                 this.adminAuthService = adminAuthService;
                 this.cacheManager = cacheManager;
+                this.vectorIndexService = vectorIndexService;
+                this.semanticAnswerCache = semanticAnswerCache;
         }
 
         /**
@@ -62,18 +71,21 @@ public class AdminEmbeddingController {
          * "movies_processed": 120,
          * "parks_processed": 12,
          * "total_processed": 582,
+         * "unchanged": 0,
+         * "orphans_deleted": 0,
          * "message": "Batch embedding generation complete"
          * }
          * 
-         * @param forceRegenerate If true, regenerate all embeddings even if they exist
+         * @param forceRegenerate If true, regenerate all embeddings even if unchanged
          * @return Generation result with counts
          */
         @PostMapping("/generate")
         @Operation(summary = "Generate embeddings for all content", description = "Batch process all characters, movies, and parks to generate vector embeddings. "
                         +
-                        "Uses smart re-embedding (skips existing) unless force_regenerate=true. " +
-                        "Rate limited to 60 requests/minute (Gemini API limit). " +
-                        "**This is a long-running operation** - expect 5-10 minutes for full dataset. **Requires X-Admin-API-Key header.**")
+                        "Incremental unless force_regenerate=true: only content whose text changed (by content hash) or that has no embedding is embedded, "
+                        +
+                        "and embeddings of deleted content are removed. " +
+                        "Batched requests, rate limited by rag.embedding.requests-per-minute. **Requires X-Admin-API-Key header.**")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Embeddings generated successfully"),
                         @ApiResponse(responseCode = "401", description = "Missing or invalid admin API key"),
@@ -102,6 +114,8 @@ public class AdminEmbeddingController {
                                 "movies_processed", result.moviesProcessed,
                                 "parks_processed", result.parksProcessed,
                                 "total_processed", result.totalProcessed,
+                                "unchanged", result.unchanged,
+                                "orphans_deleted", result.orphansDeleted,
                                 "message", "Batch embedding generation complete");
 
                 return ResponseEntity.ok(response);
@@ -158,4 +172,93 @@ public class AdminEmbeddingController {
                                 "message", "RAG query cache cleared successfully",
                                 "cache_name", "rag-queries"));
         }
+
+        /**
+         * Purge the semantic answer cache.
+         * 
+         * DELETE /api/admin/embeddings/semantic-cache
+         * 
+         * Drops every answer reused for near-duplicate questions (see
+         * SemanticAnswerCache). The exact-match "rag-queries" cache is cleared
+         * separately by DELETE /api/admin/embeddings/cache.
+         * 
+         * Example response:
+         * {
+         * "message": "Semantic answer cache purged",
+         * "entries_removed": 42,
+         * "hit_rate": 0.37
+         * }
+         * 
+         * @return Number of entries removed and the hit rate before purging
+         */
+        @DeleteMapping("/semantic-cache")
+        @Operation(summary = "Purge semantic answer cache", description = "Removes all answers cached for near-duplicate questions. "
+                        +
+                        "Reports the lookup hit rate since startup. **Requires X-Admin-API-Key header.**")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Cache purged successfully"),
+                        @ApiResponse(responseCode = "401", description = "Missing or invalid admin API key")
+        })
+        public ResponseEntity<?> purgeSemanticCache(
+                        @Parameter(description = "Admin API key for authentication", example = "your-admin-api-key", required = true, in = ParameterIn.HEADER) @RequestHeader(value = "X-Admin-API-Key", required = true) String apiKey) {
+
+                if (!adminAuthService.validateApiKey(apiKey)) {
+                        return ResponseEntity.status(401)
+                                        .body(Map.of("error", "Unauthorized - invalid or missing admin API key"));
+                }
+
+                logger.info("Admin: Purging semantic answer cache");
+                double hitRate = semanticAnswerCache.hitRate();
+                long removed = semanticAnswerCache.purge();
+
+                return ResponseEntity.ok(Map.of(
+                                "message", "Semantic answer cache purged",
+                                "entries_removed", removed,
+                                "hit_rate", hitRate));
+        }
+
+        /**
+         * Recall-vs-latency report for the in-memory vector index.
+         * 
+         * GET /api/admin/embeddings/index/recall?queries=100&k=10
+         * 
+         * Compares pgvector, an exact float32 scan, an int8 scan with and without
+         * exact re-rank, and the path currently served by the index.
+         * 
+         * Example response:
+         * {
+         * "queries": 100, "k": 10, "float_bytes": 3686400, "int8_bytes": 926400,
+         * "modes": [{ "mode": "int8 scan + rerank", "recall_vs_pgvector": 0.99,
+         * "recall_vs_exact": 1.0, "mean_micros": 412.5 }, ...]
+         * }
+         * 
+         * @return Per-mode recall and mean latency
+         */
+        @GetMapping("/index/recall")
+        @Operation(summary = "Vector index recall report", description = "Measures recall@k and latency of the in-memory retrieval paths (float32, int8, int8 + re-rank, served HNSW) "
+                        +
+                        "against pgvector and an exact scan, using sample queries between stored embeddings. **Requires X-Admin-API-Key header.**")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Report generated"),
+                        @ApiResponse(responseCode = "400", description = "Invalid queries or k"),
+                        @ApiResponse(responseCode = "401", description = "Missing or invalid admin API key"),
+                        @ApiResponse(responseCode = "503", description = "Vector index not loaded")
+        })
+        public ResponseEntity<?> recallReport(
+                        @Parameter(description = "Admin API key for authentication", example = "your-admin-api-key", required = true, in = ParameterIn.HEADER) @RequestHeader(value = "X-Admin-API-Key", required = true) String apiKey,
+                        @Parameter(description = "Number of sample queries (1-1000)", example = "100") @RequestParam(defaultValue = "100") int queries,
+                        @Parameter(description = "Results per query (1-100)", example = "10") @RequestParam(defaultValue = "10") int k) {
+
+                if (!adminAuthService.validateApiKey(apiKey)) {
+                        return ResponseEntity.status(401)
+                                        .body(Map.of("error", "Unauthorized - invalid or missing admin API key"));
+                }
+                if (!vectorIndexService.isReady()) {
+                        return ResponseEntity.status(503)
+                                        .body(Map.of("error", "Vector index is not loaded"));
+                }
+
+                logger.info("Admin: Measuring vector index recall ({} queries, k={})", queries, k);
+                return ResponseEntity.ok(vectorIndexService.measureRecall(queries, k));
+        }
 }
@@ -1,12 +1,17 @@
 package com.harmadavtian.disneyapp.controller;
 
 import com.harmadavtian.disneyapp.dto.AccessCodeRequest;
+import com.harmadavtian.disneyapp.dto.RagCitationDto;
 import com.harmadavtian.disneyapp.dto.RagQueryRequestDto;
 import com.harmadavtian.disneyapp.dto.RagQueryResponseDto;
 import com.harmadavtian.disneyapp.dto.RagStatusResponse;
 import com.harmadavtian.disneyapp.dto.TierResponse;
 import com.harmadavtian.disneyapp.service.RagService;
+import com.harmadavtian.disneyapp.service.RagStreamListener;
 import com.harmadavtian.disneyapp.service.RateLimitService;
+import com.harmadavtian.disneyapp.service.llm.LLMRateLimitException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,11 +24,20 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for RAG (Retrieval-Augmented Generation) queries.
@@ -31,6 +45,7 @@ import java.util.Map;
  * Provides endpoints for:
  * - Semantic search across Disney content
  * - AI-powered question answering with citations
+ * - Streaming answers over Server-Sent Events
  * 
  * All endpoints use snake_case for JSON (via global Jackson config).
  * 
@@ -55,11 +70,26 @@ public class RagController {
     @Value("${admin.api.key}")
     private String adminApiKey;
 
+    @Value("${rag.stream.timeout-ms:120000}")
+    private long streamTimeoutMs;
+
     private volatile boolean ragEnabled;
 
-    public RagController(RagService ragService, RateLimitService rateLimitService) {
+    private final ExecutorService ragExecutor;
+    private final Timer firstByteTimer;
+    private final Timer firstTokenTimer;
+
+    public RagController(RagService ragService, RateLimitService rateLimitService,
+            @Qualifier("ragExecutor") ExecutorService ragExecutor, MeterRegistry meterRegistry) {
         this.ragService = ragService;
         this.rateLimitService = rateLimitService;
+        this.ragExecutor = ragExecutor;
+        this.firstByteTimer = Timer.builder("rag.stream.time_to_first_byte")
+                .description("Streaming RAG query: request received to first SSE event")
+                .register(meterRegistry);
+        this.firstTokenTimer = Timer.builder("rag.stream.time_to_first_token")
+                .description("Streaming RAG query: request received to first answer text")
+                .register(meterRegistry);
     }
 
     @PostConstruct
@@ -118,19 +148,11 @@ public class RagController {
             @ApiResponse(responseCode = "429", description = "Rate limit exceeded - upgrade to premium tier for more queries"),
             @ApiResponse(responseCode = "503", description = "AI Assistant temporarily unavailable")
     })
-    public ResponseEntity<?> query(
+    public CompletableFuture<ResponseEntity<?>> query(
             @Parameter(description = "RAG query request with query text and optional filters", required = true, schema = @Schema(implementation = RagQueryRequestDto.class)) @RequestBody RagQueryRequestDto request,
             HttpServletRequest httpRequest,
             HttpSession session) {
 
-        // Kill switch check
-        if (!ragEnabled) {
-            logger.warn("RAG query rejected - service disabled");
-            return ResponseEntity.status(503)
-                    .body(Map.of("error", "AI Assistant temporarily unavailable"));
-        }
-
-        // Rate limiting check
         String sessionId = session.getId();
         String ipAddress = getClientIpAddress(httpRequest);
         String tier = (String) session.getAttribute("rateLimitTier");
@@ -138,44 +160,141 @@ public class RagController {
             tier = "free";
         }
 
-        if (!rateLimitService.checkAndIncrementUsage(sessionId, ipAddress, tier)) {
-            int[] stats = rateLimitService.getUsageStats(sessionId, ipAddress, tier);
-            logger.warn("Rate limit exceeded for session {} / IP {} (tier: {}, used: {}/{})",
-                    sessionId, ipAddress, tier, stats[0], stats[1]);
-
-            return ResponseEntity.status(429)
-                    .header("X-RateLimit-Limit", String.valueOf(stats[1]))
-                    .header("X-RateLimit-Remaining", "0")
-                    .header("X-RateLimit-Reset", rateLimitService.getResetTime(sessionId).toString())
-                    .body(Map.of(
-                            "error", "Rate limit exceeded",
-                            "tier", tier,
-                            "limit", stats[1],
-                            "message", "Upgrade to premium tier for more queries"));
+        ResponseEntity<Map<String, Object>> rejection = rejectIfUnavailable(sessionId, ipAddress, tier);
+        if (rejection != null) {
+            return CompletableFuture.completedFuture(rejection);
         }
 
         logger.info("RAG query received: '{}' (type: {}, tier: {}, IP: {})",
                 request.getQuery(), request.getContentType(), tier, ipAddress);
 
-        try {
-            RagQueryResponseDto response = ragService.query(request);
+        // The servlet thread is released here; the response is written when the pipeline completes
+        String limitedTier = tier;
+        return ragService.queryAsync(request)
+                .<ResponseEntity<?>>thenApply(response -> {
+                    // Add rate limit headers to successful response
+                    int[] stats = rateLimitService.getUsageStats(sessionId, ipAddress, limitedTier);
+
+                    logger.info("RAG query completed: {} sources, {} chars answer (usage: {}/{})",
+                            response.getSources().size(),
+                            response.getAnswer().length(),
+                            stats[0], stats[1]);
+
+                    return ResponseEntity.ok()
+                            .header("X-RateLimit-Limit", String.valueOf(stats[1]))
+                            .header("X-RateLimit-Remaining", String.valueOf(stats[2]))
+                            .body(response);
+                })
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    if (cause instanceof IllegalArgumentException) {
+                        logger.warn("Invalid RAG query: {}", cause.getMessage());
+                        return ResponseEntity.badRequest().body(Map.of("error", cause.getMessage()));
+                    }
+                    // LLM exceptions go on to RagExceptionHandler
+                    throw error instanceof CompletionException completion ? completion
+                            : new CompletionException(cause);
+                });
+    }
 
-            // Add rate limit headers to successful response
-            int[] stats = rateLimitService.getUsageStats(sessionId, ipAddress, tier);
+    /**
+     * Execute RAG query, streaming the answer as Server-Sent Events.
+     * 
+     * POST /api/rag/query/stream
+     * 
+     * Same request body, caching and rate limits as POST /api/rag/query.
+     * Citations are sent as soon as retrieval finishes, before the LLM starts
+     * answering; answer text follows as it is generated.
+     * 
+     * Events:
+     * - sources: [ { "content_type": "character", "content_name": "Elsa", ... } ]
+     * - token: { "text": "Elsa possesses" } (repeated)
+     * - done: { "cached": false }
+     * - error: { "error": "...", "message": "..." } (instead of done)
+     * 
+     * Rejections (kill switch, rate limit) keep their 503/429 status and
+     * carry a single error event.
+     * 
+     * Metrics: rag.stream.time_to_first_byte (request to first event) and
+     * rag.stream.time_to_first_token (request to first answer text).
+     * 
+     * @param request Query request with query text and optional filters
+     * @return SSE stream of sources, answer tokens and completion
+     */
+    @PostMapping(value = "/query/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Execute RAG query (streaming)", description = "Same as POST /api/rag/query, but returns Server-Sent Events: "
+            +
+            "'sources' (citations, sent right after retrieval), then 'token' events with answer text as it is generated, then 'done'. "
+            +
+            "Failures are reported as an 'error' event.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream started"),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded - upgrade to premium tier for more queries"),
+            @ApiResponse(responseCode = "503", description = "AI Assistant temporarily unavailable")
+    })
+    public ResponseEntity<SseEmitter> queryStream(
+            @Parameter(description = "RAG query request with query text and optional filters", required = true, schema = @Schema(implementation = RagQueryRequestDto.class)) @RequestBody RagQueryRequestDto request,
+            HttpServletRequest httpRequest,
+            HttpSession session) {
+        long startNanos = System.nanoTime();
 
-            logger.info("RAG query completed: {} sources, {} chars answer (usage: {}/{})",
-                    response.getSources().size(),
-                    response.getAnswer().length(),
-                    stats[0], stats[1]);
+        String sessionId = session.getId();
+        String ipAddress = getClientIpAddress(httpRequest);
+        String tier = (String) session.getAttribute("rateLimitTier");
+        if (tier == null) {
+            tier = "free";
+        }
 
-            return ResponseEntity.ok()
-                    .header("X-RateLimit-Limit", String.valueOf(stats[1]))
-                    .header("X-RateLimit-Remaining", String.valueOf(stats[2]))
-                    .body(response);
+        ResponseEntity<Map<String, Object>> rejection = rejectIfUnavailable(sessionId, ipAddress, tier);
+        if (rejection != null) {
+            SseEmitter emitter = new SseEmitter();
+            new SseStream(emitter, startNanos).error(rejection.getBody());
+            return ResponseEntity.status(rejection.getStatusCode())
+                    .headers(rejection.getHeaders())
+                    .body(emitter);
+        }
+
+        logger.info("RAG stream query received: '{}' (type: {}, tier: {}, IP: {})",
+                request.getQuery(), request.getContentType(), tier, ipAddress);
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        ragExecutor.execute(() -> streamAnswer(request, new SseStream(emitter, startNanos)));
 
+        int[] stats = rateLimitService.getUsageStats(sessionId, ipAddress, tier);
+        return ResponseEntity.ok()
+                .header("X-RateLimit-Limit", String.valueOf(stats[1]))
+                .header("X-RateLimit-Remaining", String.valueOf(stats[2]))
+                .body(emitter);
+    }
+
+    /**
+     * Run a streaming query on {@code ragExecutor}. Errors become an
+     * error event with the same body RagExceptionHandler would return.
+     */
+    private void streamAnswer(RagQueryRequestDto request, SseStream stream) {
+        try {
+            RagQueryResponseDto response = ragService.streamQuery(request, stream);
+            logger.info("RAG stream query completed: {} sources, {} chars answer",
+                    response.getSources().size(), response.getAnswer().length());
+            stream.done(response.isCached());
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid RAG query: {}", e.getMessage());
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            stream.error(Map.of(
+                    "error", "Validation error",
+                    "message", e.getMessage()));
+        } catch (LLMRateLimitException e) {
+            logger.warn("LLM rate limit exceeded during stream: {}", e.getMessage());
+            stream.error(Map.of(
+                    "error", "Rate limit exceeded",
+                    "message", "Too many requests to LLM service. Please try again later.",
+                    "retry_after_seconds", 60));
+        } catch (RuntimeException e) {
+            logger.error("RAG stream query failed: {}", e.getMessage(), e);
+            stream.error(Map.of(
+                    "error", "Service unavailable",
+                    "message", "LLM service is temporarily unavailable. Please try again later."));
         }
     }
 
@@ -326,6 +445,40 @@ public class RagController {
         return ResponseEntity.ok("RAG service is healthy");
     }
 
+    /**
+     * Kill switch and rate limit checks shared by the query endpoints. Counts
+     * the query against the caller's limit when it is allowed.
+     *
+     * @return Error response (503 or 429), or null if the query may proceed
+     */
+    private ResponseEntity<Map<String, Object>> rejectIfUnavailable(String sessionId, String ipAddress,
+            String tier) {
+        // Kill switch check
+        if (!ragEnabled) {
+            logger.warn("RAG query rejected - service disabled");
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", "AI Assistant temporarily unavailable"));
+        }
+
+        // Rate limiting check
+        if (!rateLimitService.checkAndIncrementUsage(sessionId, ipAddress, tier)) {
+            int[] stats = rateLimitService.getUsageStats(sessionId, ipAddress, tier);
+            logger.warn("Rate limit exceeded for session {} / IP {} (tier: {}, used: {}/{})",
+                    sessionId, ipAddress, tier, stats[0], stats[1]);
+
+            return ResponseEntity.status(429)
+                    .header("X-RateLimit-Limit", String.valueOf(stats[1]))
+                    .header("X-RateLimit-Remaining", "0")
+                    .header("X-RateLimit-Reset", rateLimitService.getResetTime(sessionId).toString())
+                    .body(Map.of(
+                            "error", "Rate limit exceeded",
+                            "tier", tier,
+                            "limit", stats[1],
+                            "message", "Upgrade to premium tier for more queries"));
+        }
+        return null;
+    }
+
     /**
      * Extract client IP address from request.
      * Checks proxy headers (X-Forwarded-For, X-Real-IP) for accurate IP behind load
@@ -351,4 +504,64 @@ public class RagController {
         // Fallback to remote address
         return request.getRemoteAddr();
     }
+
+    /**
+     * Writes one streaming query to its SSE emitter and records latency.
+     *
+     * A client that disconnects mid-answer only stops the writes: the query
+     * runs to completion so its answer is still cached.
+     */
+    private class SseStream implements RagStreamListener {
+
+        private final SseEmitter emitter;
+        private final long startNanos;
+        private boolean firstByteSent;
+        private boolean firstTokenSent;
+        private boolean clientGone;
+
+        SseStream(SseEmitter emitter, long startNanos) {
+            this.emitter = emitter;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onSources(List<RagCitationDto> sources) {
+            send("sources", sources);
+        }
+
+        @Override
+        public void onAnswerChunk(String chunk) {
+            if (!firstTokenSent) {
+                firstTokenSent = true;
+                firstTokenTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+            send("token", Map.of("text", chunk));
+        }
+
+        void done(boolean cached) {
+            send("done", Map.of("cached", cached));
+            emitter.complete();
+        }
+
+        void error(Object body) {
+            send("error", body);
+            emitter.complete();
+        }
+
+        private void send(String event, Object data) {
+            if (clientGone) {
+                return;
+            }
+            if (!firstByteSent) {
+                firstByteSent = true;
+                firstByteTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                clientGone = true;
+                logger.debug("RAG stream client disconnected: {}", e.getMessage());
+            }
+        }
+    }
 }
@@ -2,6 +2,8 @@ package com.harmadavtian.disneyapp.controller;
 
 import com.harmadavtian.disneyapp.config.SearchCapabilitiesProperties;
 import com.harmadavtian.disneyapp.dto.search.SearchResponseDto;
+import com.harmadavtian.disneyapp.dto.search.SearchSuggestionDto;
+import com.harmadavtian.disneyapp.service.search.HighlightMode;
 import com.harmadavtian.disneyapp.service.search.SearchAggregationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,6 +21,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -48,7 +51,15 @@ public class SearchController {
 
             @Parameter(description = "Maximum number of results per category", example = "10") @RequestParam(required = false) Integer limit,
 
-            @Parameter(description = "Match mode: 'exact' for whole word matching, 'partial' for substring matching", example = "exact") @RequestParam(required = false, defaultValue = "partial") String matchMode,
+            @Parameter(description = "Match mode: 'exact' for whole word matching, 'partial' for substring matching, 'fuzzy' for typo-tolerant whole words (1 edit for 3-5 letter words, 2 beyond)", example = "exact") @RequestParam(required = false, defaultValue = "partial") String matchMode,
+
+            @Parameter(description = "Highlight rendering: 'all' for every matching field, 'first' for the first matching field only, 'none' to skip highlights and snippets (list views)", example = "all") @RequestParam(required = false, defaultValue = "all") String highlights,
+
+            @Parameter(description = "Cursor from a category's next_cursor to fetch that category's next page. Scope and match mode are taken from the cursor; query must be unchanged.") @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Include facet counts (park, land_area, attraction_type, thrill_level, is_operational) with the parks results") @RequestParam(required = false, defaultValue = "false") boolean facets,
+
+            @Parameter(description = "Parks facet filters: filter[thrill_level]=High&filter[park]=magic-kingdom. Repeat a filter for OR within a facet; different facets are ANDed.", example = "filter[attraction_type]=Roller Coaster") @RequestParam(required = false) MultiValueMap<String, String> filter,
 
             @Parameter(description = "Search scope per category (basic or extended). Use scope[movies]=extended, scope[characters]=basic, etc.", example = "scope[movies]=extended&scope[characters]=basic") @RequestParam(required = false) MultiValueMap<String, String> scope) {
         Set<String> categorySet = parseCategories(categories);
@@ -59,15 +70,41 @@ public class SearchController {
                         .collect(Collectors.toMap(entry -> entry.getKey()
                                 .substring(entry.getKey().indexOf('[') + 1, entry.getKey().indexOf(']')),
                                 entry -> entry.getValue().isEmpty() ? "" : entry.getValue().getFirst()));
+        Map<String, List<String>> facetFilters = filter == null
+                ? Collections.emptyMap()
+                : filter.entrySet().stream()
+                        .filter(entry -> entry.getKey().startsWith("filter[") && entry.getKey().endsWith("]"))
+                        .collect(Collectors.toMap(entry -> entry.getKey()
+                                .substring(entry.getKey().indexOf('[') + 1, entry.getKey().indexOf(']')),
+                                Map.Entry::getValue));
 
         SearchResponseDto response = searchAggregationService.search(query,
                 categorySet,
                 scopeOverrides,
                 limit,
-                matchMode);
+                matchMode,
+                HighlightMode.parse(highlights),
+                cursor,
+                facetFilters,
+                facets);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocomplete suggestions", description = "Search-as-you-type suggestions over movie titles, character names and attraction names. Matches the start of any word in the name and is served from memory.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Blank query")
+    })
+    public ResponseEntity<List<SearchSuggestionDto>> suggest(
+            @Parameter(description = "Prefix typed so far", example = "lion ki", required = true) @RequestParam String query,
+
+            @Parameter(description = "Comma-separated list of categories to suggest from (movies, characters, parks)", example = "movies,characters") @RequestParam(required = false) String categories,
+
+            @Parameter(description = "Maximum number of suggestions (capped at 10)", example = "8") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(searchAggregationService.suggest(query, parseCategories(categories), limit));
+    }
+
     @GetMapping("/capabilities")
     @Operation(summary = "Get search capabilities", description = "Returns available search categories, scopes, and searchable fields for each content type")
     @ApiResponses(value = {
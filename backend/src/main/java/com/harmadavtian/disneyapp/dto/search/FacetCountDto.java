@@ -0,0 +1,7 @@
+package com.harmadavtian.disneyapp.dto.search;
+
+/**
+ * Number of matching results that have a given facet value.
+ */
+public record FacetCountDto(String value, long count) {
+}
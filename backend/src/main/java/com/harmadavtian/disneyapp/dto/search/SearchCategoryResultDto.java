@@ -1,14 +1,43 @@
 package com.harmadavtian.disneyapp.dto.search;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Getter
 @Setter
 public class SearchCategoryResultDto {
     private long total;
     private List<DisneySearchResultDto> results = new ArrayList<>();
+
+    /**
+     * Value counts per facet (parks only, when requested with
+     * {@code facets=true}). Counts for a facet ignore that facet's own filter.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, List<FacetCountDto>> facets;
+
+    /**
+     * Opaque token for the next page of this category (pass as
+     * {@code cursor}); absent on the last page.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    /**
+     * Set when the category did not finish within its time budget (or failed);
+     * results are empty and the other categories are still returned.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean incomplete;
+
+    public static SearchCategoryResultDto incomplete() {
+        SearchCategoryResultDto result = new SearchCategoryResultDto();
+        result.setIncomplete(Boolean.TRUE);
+        return result;
+    }
 }
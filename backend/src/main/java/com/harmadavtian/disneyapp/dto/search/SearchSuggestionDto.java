@@ -0,0 +1,25 @@
+package com.harmadavtian.disneyapp.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A single autocomplete suggestion returned by /api/search/suggest.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchSuggestionDto {
+    private Long id;
+    /**
+     * Result type: movie, character or park.
+     */
+    private String type;
+    private String title;
+    private String detailPath;
+}
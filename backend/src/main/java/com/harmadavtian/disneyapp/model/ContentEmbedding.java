@@ -60,6 +60,14 @@ public class ContentEmbedding {
     @Column(name = "text_content", nullable = false, columnDefinition = "TEXT")
     private String textContent;
 
+    /**
+     * SHA-256 (hex) of textContent.
+     * Compared with the current entity text to re-embed only changed content.
+     * Migration: V5__add_embedding_content_hash.sql
+     */
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
     /**
      * pgvector embedding (768 dimensions for Gemini).
      * Stored as PostgreSQL vector type, converted manually in repository layer.
@@ -19,6 +19,7 @@ import java.util.Optional;
  * Key methods:
  * - findTopKSimilar: Semantic search using pgvector cosine distance
  * - findByContentTypeAndContentId: Exact lookup for smart re-embedding
+ * - findContentHashes: Change detection for incremental re-embedding
  * - deleteByContentTypeAndContentId: Clean up embeddings when content deleted
  * 
  * @author Harma Davtian
@@ -78,6 +79,22 @@ public interface ContentEmbeddingRepository
                         Long contentId,
                         String modelVersion);
 
+        /**
+         * Content hashes of every embedding for a model version.
+         * Used by incremental re-embedding to find changed and orphaned rows
+         * without loading text or vectors.
+         * 
+         * @param modelVersion Model version
+         * @return One entry per stored embedding
+         */
+        @Query("""
+                        SELECT new com.harmadavtian.disneyapp.repository.EmbeddingContentHash(
+                            e.embeddingId, e.contentType, e.contentId, e.contentHash)
+                        FROM ContentEmbedding e
+                        WHERE e.modelVersion = :modelVersion
+                        """)
+        List<EmbeddingContentHash> findContentHashes(@Param("modelVersion") String modelVersion);
+
         /**
          * Find all embeddings for specific content (all model versions).
          * Used for debugging and migration.
@@ -13,36 +13,55 @@ import java.util.List;
 public interface ContentEmbeddingRepositoryCustom {
 
     /**
-     * Find top K most similar embeddings using pgvector similarity search.
+     * Find top K most similar embeddings, returning pgvector's cosine distance
+     * instead of the vectors.
+     * 
+     * Lean projection: embedding_id, content_type, content_id, text_content and
+     * model_version only, so each hit costs a few bytes plus its text rather
+     * than 768 floats.
      * 
      * @param queryEmbedding Query vector as float array
-     * @param contentType    Content type filter (character, movie, park)
+     * @param contentType    Content type filter, or null for all types
      * @param modelVersion   Model version filter
      * @param limit          Number of results
-     * @return List of similar embeddings with populated float[] arrays
+     * @return Hits ordered by similarity (closest first), embeddings without
+     *         vectors
      */
-    List<ContentEmbedding> findTopKSimilarWithVectors(
+    List<ScoredEmbedding> findTopKSimilarScored(
             float[] queryEmbedding,
             String contentType,
             String modelVersion,
             int limit);
 
     /**
-     * Find top K most similar embeddings across ALL content types.
+     * Load every embedding of a model version with its vector, for building
+     * in-memory vector indexes.
      * 
-     * @param queryEmbedding Query vector as float array
-     * @param modelVersion   Model version filter
-     * @param limit          Number of results
-     * @return List of similar embeddings from all content types
+     * @param modelVersion Model version filter
+     * @return All embeddings with populated float[] arrays
      */
-    List<ContentEmbedding> findTopKSimilarAllTypes(
-            float[] queryEmbedding,
-            String modelVersion,
-            int limit);
+    List<ContentEmbedding> findAllWithVectors(String modelVersion);
+
+    /**
+     * Cheap fingerprint of a model version's rows (count, highest id, latest
+     * update) used to tell whether a persisted vector store is still current,
+     * without reading any vectors.
+     * 
+     * @param modelVersion Model version filter
+     * @return Fingerprint string; equal fingerprints mean unchanged rows
+     */
+    String embeddingFingerprint(String modelVersion);
 
     /**
      * Save ContentEmbedding with vector conversion.
      * 
+     * Upserts on (content_type, content_id, model_version): an existing row
+     * gets the new text, content hash and vector.
+     * 
+     * Runs on the caller's transaction connection, if any, and does not start
+     * a transaction of its own: a failure is rolled back with the caller's
+     * transaction or savepoint.
+     * 
      * @param embedding ContentEmbedding to save (with float[] populated)
      * @return Saved entity
      */
@@ -1,13 +1,16 @@
 package com.harmadavtian.disneyapp.repository;
 
 import com.harmadavtian.disneyapp.model.ContentEmbedding;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,6 +19,12 @@ import java.util.List;
  * 
  * This is the mainstream production approach: use native SQL with JDBC
  * to handle PostgreSQL vector types that Hibernate doesn't support.
+ * 
+ * Vectors cross the wire in binary, never as "[0.1,0.2,...]" text:
+ * - Parameters are bound as float4[] arrays (sent in binary by the driver)
+ *   and cast to vector on the server.
+ * - Results are read with vector_send(embedding), pgvector's binary
+ *   representation, and decoded straight into a float[].
  */
 @Repository
 public class ContentEmbeddingRepositoryCustomImpl implements ContentEmbeddingRepositoryCustom {
@@ -27,61 +36,49 @@ public class ContentEmbeddingRepositoryCustomImpl implements ContentEmbeddingRep
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public List<ContentEmbedding> findTopKSimilarWithVectors(
+    public List<ScoredEmbedding> findTopKSimilarScored(
             float[] queryEmbedding,
             String contentType,
             String modelVersion,
             int limit) {
 
-        List<ContentEmbedding> results = new ArrayList<>();
-
-        // Convert float[] to PostgreSQL vector string format: [1.0,2.0,3.0]
-        String vectorString = floatArrayToVectorString(queryEmbedding);
+        List<ScoredEmbedding> results = new ArrayList<>();
+        boolean filterByType = contentType != null && !contentType.isBlank();
 
-        // Native SQL with vector operations
+        // The distance computed for ORDER BY is returned as a column; no vectors
         String sql = """
-                SELECT embedding_id, content_type, content_id, text_content,
-                       embedding::text as embedding_text, model_version, created_at, updated_at
+                SELECT embedding_id, content_type, content_id, text_content, model_version,
+                       embedding <=> CAST(? AS vector) AS distance
                 FROM content_embeddings
-                WHERE content_type = :contentType
-                AND model_version = :modelVersion
-                ORDER BY embedding <=> CAST(:queryEmbedding AS vector)
-                LIMIT :limit
+                WHERE model_version = ?
+                """ + (filterByType ? "AND content_type = ?\n" : "") + """
+                ORDER BY distance
+                LIMIT ?
                 """;
 
         try (Connection conn = dataSource.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql
-                        .replace(":contentType", "?")
-                        .replace(":modelVersion", "?")
-                        .replace(":queryEmbedding", "?")
-                        .replace(":limit", "?"))) {
-
-            stmt.setString(1, contentType);
-            stmt.setString(2, modelVersion);
-            stmt.setString(3, vectorString);
-            stmt.setInt(4, limit);
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                ContentEmbedding emb = new ContentEmbedding();
-                emb.setEmbeddingId(rs.getLong("embedding_id"));
-                emb.setContentType(rs.getString("content_type"));
-                emb.setContentId(rs.getLong("content_id"));
-                emb.setTextContent(rs.getString("text_content"));
-                emb.setModelVersion(rs.getString("model_version"));
-                emb.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                emb.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
-
-                // Convert vector text back to float[]
-                String vectorText = rs.getString("embedding_text");
-                emb.setEmbedding(vectorStringToFloatArray(vectorText));
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                results.add(emb);
+            int parameter = 1;
+            stmt.setArray(parameter++, toFloat4Array(conn, queryEmbedding));
+            stmt.setString(parameter++, modelVersion);
+            if (filterByType) {
+                stmt.setString(parameter++, contentType);
+            }
+            stmt.setInt(parameter, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ContentEmbedding emb = new ContentEmbedding();
+                    emb.setEmbeddingId(rs.getLong("embedding_id"));
+                    emb.setContentType(rs.getString("content_type"));
+                    emb.setContentId(rs.getLong("content_id"));
+                    emb.setTextContent(rs.getString("text_content"));
+                    emb.setModelVersion(rs.getString("model_version"));
+
+                    results.add(new ScoredEmbedding(emb, 1 - rs.getDouble("distance")));
+                }
             }
-
-            rs.close();
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to query similar embeddings", e);
@@ -91,34 +88,22 @@ public class ContentEmbeddingRepositoryCustomImpl implements ContentEmbeddingRep
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public List<ContentEmbedding> findTopKSimilarAllTypes(
-            float[] queryEmbedding,
-            String modelVersion,
-            int limit) {
+    public List<ContentEmbedding> findAllWithVectors(String modelVersion) {
 
         List<ContentEmbedding> results = new ArrayList<>();
-        String vectorString = floatArrayToVectorString(queryEmbedding);
 
-        // Native SQL with vector operations - NO content_type filter
         String sql = """
                 SELECT embedding_id, content_type, content_id, text_content,
-                       embedding::text as embedding_text, model_version, created_at, updated_at
+                       vector_send(embedding) as embedding_bin, model_version, created_at, updated_at
                 FROM content_embeddings
-                WHERE model_version = :modelVersion
-                ORDER BY embedding <=> CAST(:queryEmbedding AS vector)
-                LIMIT :limit
+                WHERE model_version = ?
+                ORDER BY embedding_id
                 """;
 
         try (Connection conn = dataSource.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql
-                        .replace(":modelVersion", "?")
-                        .replace(":queryEmbedding", "?")
-                        .replace(":limit", "?"))) {
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, modelVersion);
-            stmt.setString(2, vectorString);
-            stmt.setInt(3, limit);
 
             ResultSet rs = stmt.executeQuery();
 
@@ -131,9 +116,7 @@ public class ContentEmbeddingRepositoryCustomImpl implements ContentEmbeddingRep
                 emb.setModelVersion(rs.getString("model_version"));
                 emb.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
                 emb.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
-
-                String vectorText = rs.getString("embedding_text");
-                emb.setEmbedding(vectorStringToFloatArray(vectorText));
+                emb.setEmbedding(fromVectorSend(rs.getBytes("embedding_bin")));
 
                 results.add(emb);
             }
@@ -141,32 +124,63 @@ public class ContentEmbeddingRepositoryCustomImpl implements ContentEmbeddingRep
             rs.close();
 
         } catch (Exception e) {
-            throw new RuntimeException("Failed to query similar embeddings across all types", e);
+            throw new RuntimeException("Failed to load embeddings", e);
         }
 
         return results;
     }
 
     @Override
-    @Transactional
-    public ContentEmbedding saveWithVector(ContentEmbedding embedding) {
-        String vectorString = floatArrayToVectorString(embedding.getEmbedding());
+    public String embeddingFingerprint(String modelVersion) {
+        String sql = """
+                SELECT COUNT(*) AS row_count,
+                       COALESCE(MAX(embedding_id), 0) AS max_id,
+                       MAX(updated_at) AS last_updated
+                FROM content_embeddings
+                WHERE model_version = ?
+                """;
+
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, modelVersion);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                var lastUpdated = rs.getTimestamp("last_updated");
+                return rs.getLong("row_count") + ":" + rs.getLong("max_id") + ":"
+                        + (lastUpdated == null ? 0 : lastUpdated.getTime());
+            }
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fingerprint embeddings", e);
+        }
+    }
 
+    @Override
+    public ContentEmbedding saveWithVector(ContentEmbedding embedding) {
         String sql = """
                 INSERT INTO content_embeddings
-                (content_type, content_id, text_content, embedding, model_version)
-                VALUES (?, ?, ?, CAST(? AS vector), ?)
+                (content_type, content_id, text_content, content_hash, embedding, model_version)
+                VALUES (?, ?, ?, ?, CAST(? AS vector), ?)
+                ON CONFLICT (content_type, content_id, model_version) DO UPDATE
+                SET text_content = EXCLUDED.text_content,
+                    content_hash = EXCLUDED.content_hash,
+                    embedding = EXCLUDED.embedding
                 RETURNING embedding_id, created_at, updated_at
                 """;
 
-        try (Connection conn = dataSource.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        // Use the transaction's connection (if any), so the write sees and
+        // commits with its other statements, e.g. a forced regenerate's DELETE
+        Connection conn = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, embedding.getContentType());
             stmt.setLong(2, embedding.getContentId());
             stmt.setString(3, embedding.getTextContent());
-            stmt.setString(4, vectorString);
-            stmt.setString(5, embedding.getModelVersion());
+            stmt.setString(4, embedding.getContentHash());
+            stmt.setArray(5, toFloat4Array(conn, embedding.getEmbedding()));
+            stmt.setString(6, embedding.getModelVersion());
 
             ResultSet rs = stmt.executeQuery();
 
@@ -180,40 +194,40 @@ public class ContentEmbeddingRepositoryCustomImpl implements ContentEmbeddingRep
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to save embedding with vector", e);
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
         }
 
         return embedding;
     }
 
     /**
-     * Convert float[] to PostgreSQL vector string format.
-     * Example: [1.0, 2.0, 3.0] -> "[1.0,2.0,3.0]"
+     * Bind a vector as a float4[] parameter, which the driver sends in binary;
+     * the SQL casts it to vector (pgvector's real[] cast). java.sql only takes
+     * Object[] here, hence the boxing.
      */
-    private String floatArrayToVectorString(float[] array) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < array.length; i++) {
-            if (i > 0)
-                sb.append(",");
-            sb.append(array[i]);
+    private static Array toFloat4Array(Connection conn, float[] vector) throws SQLException {
+        Float[] elements = new Float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            elements[i] = vector[i];
         }
-        sb.append("]");
-        return sb.toString();
+        return conn.createArrayOf("float4", elements);
     }
 
     /**
-     * Convert PostgreSQL vector string to float[].
-     * Example: "[1.0,2.0,3.0]" -> [1.0, 2.0, 3.0]
+     * Decode the output of vector_send: int16 dimensions, int16 reserved, then
+     * one big-endian float4 per dimension.
      */
-    private float[] vectorStringToFloatArray(String vectorString) {
-        // Remove brackets
-        String cleaned = vectorString.substring(1, vectorString.length() - 1);
-        String[] parts = cleaned.split(",");
-
-        float[] array = new float[parts.length];
-        for (int i = 0; i < parts.length; i++) {
-            array[i] = Float.parseFloat(parts[i].trim());
+    static float[] fromVectorSend(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int dimensions = Short.toUnsignedInt(buffer.getShort());
+        buffer.getShort();
+        if (buffer.remaining() != dimensions * Float.BYTES) {
+            throw new IllegalStateException("Malformed vector: " + dimensions + " dimensions in "
+                    + bytes.length + " bytes");
         }
-
+        float[] array = new float[dimensions];
+        buffer.asFloatBuffer().get(array);
         return array;
     }
 }
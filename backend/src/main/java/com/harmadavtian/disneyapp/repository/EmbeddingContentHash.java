@@ -0,0 +1,12 @@
+package com.harmadavtian.disneyapp.repository;
+
+/**
+ * Identity and content hash of a stored embedding, without text or vector.
+ * 
+ * @param embeddingId Primary key
+ * @param contentType Content type (character, movie, etc.)
+ * @param contentId   Foreign key to content table
+ * @param contentHash SHA-256 (hex) of the embedded text
+ */
+public record EmbeddingContentHash(Long embeddingId, String contentType, Long contentId, String contentHash) {
+}
@@ -0,0 +1,16 @@
+package com.harmadavtian.disneyapp.repository;
+
+import com.harmadavtian.disneyapp.model.ContentEmbedding;
+
+/**
+ * A retrieved embedding and its cosine similarity to the query.
+ * 
+ * The embedding carries its metadata and text_content but no vector: the
+ * similarity is already computed by whoever ranked it (pgvector or the
+ * in-memory index).
+ * 
+ * @param embedding  Retrieved row, without vector
+ * @param similarity Cosine similarity ({@code 1 - (embedding <=> query)})
+ */
+public record ScoredEmbedding(ContentEmbedding embedding, double similarity) {
+}
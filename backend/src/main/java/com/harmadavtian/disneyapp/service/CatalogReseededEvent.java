@@ -0,0 +1,13 @@
+package com.harmadavtian.disneyapp.service;
+
+/**
+ * Published by {@link DataSeeder} whenever an admin reseed replaces catalog
+ * content (characters, movies, parks or attractions).
+ *
+ * Listeners that keep derived in-memory state (search index, caches) use it
+ * to rebuild once the reseed transaction has committed.
+ *
+ * @param dataset The dataset that was reseeded (e.g. "characters", "movies")
+ */
+public record CatalogReseededEvent(String dataset) {
+}
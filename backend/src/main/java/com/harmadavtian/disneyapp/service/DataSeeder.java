@@ -18,6 +18,7 @@ import com.harmadavtian.disneyapp.repository.CharacterHintRepository;
 import com.harmadavtian.disneyapp.repository.MovieHintRepository;
 import com.harmadavtian.disneyapp.model.HeroMovieCarousel;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -45,6 +46,7 @@ public class DataSeeder implements CommandLineRunner {
     private final CharacterHintRepository characterHintRepository;
     private final MovieHintRepository movieHintRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public DataSeeder(CharacterRepository characterRepository, MovieRepository movieRepository,
             HeroMovieCarouselRepository heroMovieCarouselRepository,
@@ -52,7 +54,8 @@ public class DataSeeder implements CommandLineRunner {
             DisneyParkAttractionRepository disneyParkAttractionRepository,
             CharacterHintRepository characterHintRepository,
             MovieHintRepository movieHintRepository,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher) {
         this.characterRepository = characterRepository;
         this.movieRepository = movieRepository;
         this.heroMovieCarouselRepository = heroMovieCarouselRepository;
@@ -61,6 +64,7 @@ public class DataSeeder implements CommandLineRunner {
         this.characterHintRepository = characterHintRepository;
         this.movieHintRepository = movieHintRepository;
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -148,6 +152,7 @@ public class DataSeeder implements CommandLineRunner {
 
         characterRepository.saveAll(characters);
         log.info("Reseeded {} characters successfully", characters.size());
+        eventPublisher.publishEvent(new CatalogReseededEvent("characters"));
         return Map.of("inserted", characters.size());
     }
 
@@ -171,6 +176,7 @@ public class DataSeeder implements CommandLineRunner {
 
         movieRepository.saveAll(movies);
         log.info("Reseeded {} movies successfully", movies.size());
+        eventPublisher.publishEvent(new CatalogReseededEvent("movies"));
         return Map.of("inserted", movies.size());
     }
 
@@ -418,6 +424,7 @@ public class DataSeeder implements CommandLineRunner {
         // Reseed attractions (depends on parks)
         seedDisneyParksAttractions();
         log.info("Disney Parks and Attractions reseeded successfully");
+        eventPublisher.publishEvent(new CatalogReseededEvent("parks"));
     }
 
     /**
@@ -431,6 +438,7 @@ public class DataSeeder implements CommandLineRunner {
         disneyParkAttractionRepository.flush();
         seedDisneyParksAttractions();
         log.info("Disney Parks Attractions reseeded successfully");
+        eventPublisher.publishEvent(new CatalogReseededEvent("attractions"));
     }
 
     // ============================================================================
@@ -6,14 +6,32 @@ import com.harmadavtian.disneyapp.model.DisneyPark;
 import com.harmadavtian.disneyapp.model.Movie;
 import com.harmadavtian.disneyapp.repository.*;
 import com.harmadavtian.disneyapp.service.llm.LLMClient;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 /**
  * Service for generating and managing content embeddings.
@@ -24,9 +42,11 @@ import java.util.Optional;
  * - Disney Parks (name, description)
  * 
  * Features:
- * - Smart re-embedding (skips existing embeddings)
- * - Batch processing with progress logging
- * - Rate limit handling (sleep between batches)
+ * - Incremental re-embedding (content hashes: only new or changed content,
+ * orphans deleted)
+ * - Batch embedding requests, several in flight at once
+ * - Token-bucket limit on embedding requests per minute (Bucket4j)
+ * - Progress logging
  * - Text content extraction and formatting
  * 
  * @author Harma Davtian
@@ -41,24 +61,57 @@ public class EmbeddingService {
     private final CharacterRepository characterRepository;
     private final MovieRepository movieRepository;
     private final DisneyParkRepository parkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int parallelism;
+    private final int requestsPerMinute;
+    private final Bucket requestRateLimiter;
+    private final TransactionTemplate savepoint;
 
     public EmbeddingService(
             LLMClient llmClient,
             ContentEmbeddingRepository embeddingRepository,
             CharacterRepository characterRepository,
             MovieRepository movieRepository,
-            DisneyParkRepository parkRepository) {
+            DisneyParkRepository parkRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${rag.embedding.batch-size:100}") int batchSize,
+            @Value("${rag.embedding.parallelism:4}") int parallelism,
+            @Value("${rag.embedding.requests-per-minute:60}") int requestsPerMinute) {
+        if (batchSize < 1 || parallelism < 1 || requestsPerMinute < 1) {
+            throw new IllegalArgumentException(
+                    "rag.embedding.batch-size, parallelism and requests-per-minute must be positive");
+        }
         this.llmClient = llmClient;
         this.embeddingRepository = embeddingRepository;
         this.characterRepository = characterRepository;
         this.movieRepository = movieRepository;
         this.parkRepository = parkRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.requestsPerMinute = requestsPerMinute;
+        // Shared by all runs: the quota is per API key, not per run
+        this.requestRateLimiter = Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(requestsPerMinute)
+                        .refillGreedy(requestsPerMinute, Duration.ofMinutes(1))
+                        .build())
+                .build();
+        // Each save runs in a savepoint, so a failed row does not abort the run
+        this.savepoint = new TransactionTemplate(transactionManager);
+        this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
     }
 
     /**
      * Generate embeddings for all content types.
      * 
-     * Processes characters, movies, and parks in batches.
+     * Incremental unless forced: each entity's text is hashed (SHA-256) and
+     * compared with content_hash of its stored embedding. New and changed
+     * entities are embedded in batches (see {@link #embedAndSave}) and
+     * upserted; unchanged ones are skipped. Embeddings of characters, movies
+     * and parks that no longer exist are deleted.
      * Progress logged for monitoring.
      * 
      * @param forceRegenerate If true, regenerate all embeddings even if they exist
@@ -76,243 +129,198 @@ public class EmbeddingService {
         }
 
         EmbeddingGenerationResult result = new EmbeddingGenerationResult();
+        String modelVersion = llmClient.getEmbeddingModelName();
 
-        // Generate character embeddings
-        result.charactersProcessed = generateCharacterEmbeddings(forceRegenerate);
+        // Stored content hashes by type and id (none left after a forced delete)
+        Map<String, Map<Long, EmbeddingContentHash>> stored = new HashMap<>();
+        for (EmbeddingContentHash row : embeddingRepository.findContentHashes(modelVersion)) {
+            stored.computeIfAbsent(row.contentType(), type -> new HashMap<>()).put(row.contentId(), row);
+        }
+
+        // Collect new and changed content, then embed in parallel batches
+        List<PendingEmbedding> pending = new ArrayList<>();
+        List<Character> characters = characterRepository.findAll();
+        pending.addAll(findPending("character", characters,
+                Character::getId, Character::getName, this::buildCharacterText, stored));
+        List<Movie> movies = movieRepository.findAll();
+        pending.addAll(findPending("movie", movies,
+                Movie::getId, Movie::getTitle, this::buildMovieText, stored));
+        List<DisneyPark> parks = parkRepository.findAll();
+        pending.addAll(findPending("park", parks,
+                DisneyPark::getId, DisneyPark::getName, this::buildParkText, stored));
+        result.unchanged = characters.size() + movies.size() + parks.size() - pending.size();
+        logger.info("{} items new or changed, {} unchanged", pending.size(), result.unchanged);
+
+        // Whatever findPending did not claim belongs to deleted content
+        List<Long> orphans = new ArrayList<>();
+        for (String contentType : List.of("character", "movie", "park")) {
+            stored.getOrDefault(contentType, Map.of()).values()
+                    .forEach(row -> orphans.add(row.embeddingId()));
+        }
+        if (!orphans.isEmpty()) {
+            embeddingRepository.deleteAllByIdInBatch(orphans);
+            logger.info("Deleted {} embeddings of removed content", orphans.size());
+        }
+        result.orphansDeleted = orphans.size();
+
+        Map<String, Integer> generated = embedAndSave(pending);
+
+        result.charactersProcessed = generated.getOrDefault("character", 0);
         logger.info("Characters: {} embeddings generated", result.charactersProcessed);
 
-        // Generate movie embeddings
-        result.moviesProcessed = generateMovieEmbeddings(forceRegenerate);
+        result.moviesProcessed = generated.getOrDefault("movie", 0);
         logger.info("Movies: {} embeddings generated", result.moviesProcessed);
 
-        // Generate park embeddings
-        result.parksProcessed = generateParkEmbeddings(forceRegenerate);
+        result.parksProcessed = generated.getOrDefault("park", 0);
         logger.info("Parks: {} embeddings generated", result.parksProcessed);
 
         result.totalProcessed = result.charactersProcessed + result.moviesProcessed + result.parksProcessed;
         logger.info("Batch embedding generation complete: {} total embeddings", result.totalProcessed);
 
-        return result;
-    }
-
-    /**
-     * Generate embeddings for all characters.
-     * 
-     * @param forceRegenerate If true, regenerate even if embedding exists
-     * @return Number of embeddings generated
-     */
-    private int generateCharacterEmbeddings(boolean forceRegenerate) {
-        List<Character> characters = characterRepository.findAll();
-        int generated = 0;
-
-        for (Character character : characters) {
-            try {
-                if (generateCharacterEmbedding(character, forceRegenerate)) {
-                    generated++;
-
-                    // Rate limiting: sleep 1 second between API calls (60/min limit)
-                    if (generated % 10 == 0) {
-                        logger.debug("Generated {} character embeddings, sleeping...", generated);
-                        Thread.sleep(1000);
-                    }
-                }
-            } catch (InterruptedException e) {
-                logger.warn("Interrupted during character embedding generation", e);
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                logger.error("Failed to generate embedding for character {}: {}",
-                        character.getName(), e.getMessage(), e);
-            }
+        // In-memory vector indexes reload once this transaction commits; a no-op delta keeps them
+        if (forceRegenerate || result.totalProcessed > 0 || result.orphansDeleted > 0) {
+            eventPublisher.publishEvent(new EmbeddingsUpdatedEvent(modelVersion, result.totalProcessed));
         }
 
-        return generated;
+        return result;
     }
 
     /**
-     * Generate embedding for a single character.
+     * Content of one type that is new or changed since it was last embedded.
      * 
-     * @param character       Character to embed
-     * @param forceRegenerate If true, regenerate even if exists
-     * @return true if embedding was generated
+     * @param contentType character, movie or park
+     * @param items       All entities of that type
+     * @param id          Entity id
+     * @param label       Name for logging
+     * @param text        Text to embed
+     * @param stored      Stored hashes by type and id; entries for
+     *                    {@code items} are removed, so what remains afterwards
+     *                    has no entity
+     * @return Items to embed, in repository order
      */
-    private boolean generateCharacterEmbedding(Character character, boolean forceRegenerate) {
-        String modelVersion = llmClient.getEmbeddingModelName();
-
-        // Check if embedding already exists
-        if (!forceRegenerate) {
-            Optional<ContentEmbedding> existing = embeddingRepository
-                    .findByContentTypeAndContentIdAndModelVersion(
-                            "character",
-                            character.getId(),
-                            modelVersion);
-            if (existing.isPresent()) {
-                logger.debug("Skipping character {} - embedding exists", character.getName());
-                return false;
+    private <T> List<PendingEmbedding> findPending(String contentType, List<T> items, Function<T, Long> id,
+            Function<T, String> label, Function<T, String> text,
+            Map<String, Map<Long, EmbeddingContentHash>> stored) {
+        Map<Long, EmbeddingContentHash> storedOfType = stored.getOrDefault(contentType, new HashMap<>());
+        List<PendingEmbedding> pending = new ArrayList<>();
+
+        for (T item : items) {
+            String textContent = text.apply(item);
+            String contentHash = contentHash(textContent);
+
+            // Skip if the stored embedding was made from the same text
+            EmbeddingContentHash existing = storedOfType.remove(id.apply(item));
+            if (existing != null && contentHash.equals(existing.contentHash())) {
+                logger.debug("Skipping {} {} - embedding up to date", contentType, label.apply(item));
+                continue;
             }
+            pending.add(new PendingEmbedding(contentType, id.apply(item), label.apply(item), textContent,
+                    contentHash));
         }
 
-        // Build text content for embedding
-        String textContent = buildCharacterText(character);
-
-        // Generate embedding with RETRIEVAL_DOCUMENT task type for optimal RAG
-        // performance
-        float[] embedding = llmClient.generateEmbedding(textContent, "RETRIEVAL_DOCUMENT");
-
-        // Save to database
-        ContentEmbedding contentEmbedding = new ContentEmbedding();
-        contentEmbedding.setContentType("character");
-        contentEmbedding.setContentId(character.getId());
-        contentEmbedding.setTextContent(textContent);
-        contentEmbedding.setEmbedding(embedding);
-        contentEmbedding.setModelVersion(modelVersion);
-
-        embeddingRepository.saveWithVector(contentEmbedding);
-        logger.debug("Generated embedding for character: {}", character.getName());
-
-        return true;
+        return pending;
     }
 
     /**
-     * Generate embeddings for all movies.
-     * 
-     * @param forceRegenerate If true, regenerate even if embedding exists
-     * @return Number of embeddings generated
+     * SHA-256 of the UTF-8 text, as lower-case hex. Matches the backfill in
+     * V5__add_embedding_content_hash.sql.
      */
-    private int generateMovieEmbeddings(boolean forceRegenerate) {
-        List<Movie> movies = movieRepository.findAll();
-        int generated = 0;
-
-        for (Movie movie : movies) {
-            try {
-                if (generateMovieEmbedding(movie, forceRegenerate)) {
-                    generated++;
-
-                    if (generated % 10 == 0) {
-                        logger.debug("Generated {} movie embeddings, sleeping...", generated);
-                        Thread.sleep(1000);
-                    }
-                }
-            } catch (InterruptedException e) {
-                logger.warn("Interrupted during movie embedding generation", e);
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                logger.error("Failed to generate embedding for movie {}: {}",
-                        movie.getTitle(), e.getMessage(), e);
-            }
+    static String contentHash(String textContent) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(textContent.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-
-        return generated;
     }
 
     /**
-     * Generate embedding for a single movie.
+     * Embed and save {@code pending}.
+     * 
+     * Items are split into batches of up to {@code rag.embedding.batch-size}
+     * texts (capped by {@link LLMClient#maxEmbeddingBatchSize()}), one API
+     * request each. Up to {@code rag.embedding.parallelism} batches are in
+     * flight at once, and each takes a token from the request-rate bucket
+     * before it is sent. Rows are saved on the calling thread, on its
+     * transaction's connection, in batch order while later batches are still
+     * being embedded. Each save runs in a savepoint: a failed row is rolled
+     * back to it, logged and skipped without aborting the transaction. A
+     * batch whose request failed is logged and skipped.
      * 
-     * @param movie           Movie to embed
-     * @param forceRegenerate If true, regenerate even if exists
-     * @return true if embedding was generated
+     * @return Number of embeddings saved per content type
      */
-    private boolean generateMovieEmbedding(Movie movie, boolean forceRegenerate) {
+    private Map<String, Integer> embedAndSave(List<PendingEmbedding> pending) {
         String modelVersion = llmClient.getEmbeddingModelName();
-
-        if (!forceRegenerate) {
-            Optional<ContentEmbedding> existing = embeddingRepository
-                    .findByContentTypeAndContentIdAndModelVersion(
-                            "movie",
-                            movie.getId(),
-                            modelVersion);
-            if (existing.isPresent()) {
-                logger.debug("Skipping movie {} - embedding exists", movie.getTitle());
-                return false;
-            }
+        int batchSize = Math.max(1, Math.min(this.batchSize, llmClient.maxEmbeddingBatchSize()));
+        List<List<PendingEmbedding>> batches = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            batches.add(pending.subList(from, Math.min(from + batchSize, pending.size())));
         }
+        logger.info("Embedding {} items in {} batches of up to {} ({} in parallel, {} requests/min)",
+                pending.size(), batches.size(), batchSize, parallelism, requestsPerMinute);
+
+        Map<String, Integer> saved = new HashMap<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(parallelism,
+                Thread.ofVirtual().name("embedding-", 0).factory())) {
+            List<Future<List<float[]>>> futures = new ArrayList<>(batches.size());
+            for (List<PendingEmbedding> batch : batches) {
+                futures.add(pool.submit(() -> embedBatch(batch)));
+            }
 
-        String textContent = buildMovieText(movie);
-        float[] embedding = llmClient.generateEmbedding(textContent, "RETRIEVAL_DOCUMENT");
-
-        ContentEmbedding contentEmbedding = new ContentEmbedding();
-        contentEmbedding.setContentType("movie");
-        contentEmbedding.setContentId(movie.getId());
-        contentEmbedding.setTextContent(textContent);
-        contentEmbedding.setEmbedding(embedding);
-        contentEmbedding.setModelVersion(modelVersion);
-
-        embeddingRepository.saveWithVector(contentEmbedding);
-        logger.debug("Generated embedding for movie: {}", movie.getTitle());
-
-        return true;
-    }
-
-    /**
-     * Generate embeddings for all Disney parks.
-     * 
-     * @param forceRegenerate If true, regenerate even if embedding exists
-     * @return Number of embeddings generated
-     */
-    private int generateParkEmbeddings(boolean forceRegenerate) {
-        List<DisneyPark> parks = parkRepository.findAll();
-        int generated = 0;
-
-        for (DisneyPark park : parks) {
-            try {
-                if (generateParkEmbedding(park, forceRegenerate)) {
-                    generated++;
+            for (int i = 0; i < batches.size(); i++) {
+                List<PendingEmbedding> batch = batches.get(i);
+                List<float[]> embeddings;
+                try {
+                    embeddings = futures.get(i).get();
+                } catch (InterruptedException e) {
+                    logger.warn("Interrupted during embedding generation", e);
+                    Thread.currentThread().interrupt();
+                    futures.forEach(future -> future.cancel(true));
+                    break;
+                } catch (ExecutionException e) {
+                    logger.error("Failed to generate embeddings for batch {} ({} items, first: {} {}): {}",
+                            i + 1, batch.size(), batch.get(0).contentType(), batch.get(0).label(),
+                            e.getCause().getMessage(), e.getCause());
+                    continue;
+                }
 
-                    if (generated % 10 == 0) {
-                        logger.debug("Generated {} park embeddings, sleeping...", generated);
-                        Thread.sleep(1000);
+                for (int j = 0; j < batch.size(); j++) {
+                    PendingEmbedding item = batch.get(j);
+                    try {
+                        ContentEmbedding contentEmbedding = new ContentEmbedding();
+                        contentEmbedding.setContentType(item.contentType());
+                        contentEmbedding.setContentId(item.contentId());
+                        contentEmbedding.setTextContent(item.textContent());
+                        contentEmbedding.setContentHash(item.contentHash());
+                        contentEmbedding.setEmbedding(embeddings.get(j));
+                        contentEmbedding.setModelVersion(modelVersion);
+
+                        savepoint.executeWithoutResult(
+                                status -> embeddingRepository.saveWithVector(contentEmbedding));
+                        saved.merge(item.contentType(), 1, Integer::sum);
+                        logger.debug("Generated embedding for {}: {}", item.contentType(), item.label());
+                    } catch (Exception e) {
+                        logger.error("Failed to save embedding for {} {}: {}",
+                                item.contentType(), item.label(), e.getMessage(), e);
                     }
                 }
-            } catch (InterruptedException e) {
-                logger.warn("Interrupted during park embedding generation", e);
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                logger.error("Failed to generate embedding for park {}: {}",
-                        park.getName(), e.getMessage(), e);
+                logger.debug("Saved batch {}/{}", i + 1, batches.size());
             }
         }
 
-        return generated;
+        return saved;
     }
 
     /**
-     * Generate embedding for a single park.
-     * 
-     * @param park            Park to embed
-     * @param forceRegenerate If true, regenerate even if exists
-     * @return true if embedding was generated
+     * One rate-limited batch request. Runs on the embedding pool.
      */
-    private boolean generateParkEmbedding(DisneyPark park, boolean forceRegenerate) {
-        String modelVersion = llmClient.getEmbeddingModelName();
-
-        if (!forceRegenerate) {
-            Optional<ContentEmbedding> existing = embeddingRepository
-                    .findByContentTypeAndContentIdAndModelVersion(
-                            "park",
-                            park.getId(),
-                            modelVersion);
-            if (existing.isPresent()) {
-                logger.debug("Skipping park {} - embedding exists", park.getName());
-                return false;
-            }
-        }
-
-        String textContent = buildParkText(park);
-        float[] embedding = llmClient.generateEmbedding(textContent, "RETRIEVAL_DOCUMENT");
-
-        ContentEmbedding contentEmbedding = new ContentEmbedding();
-        contentEmbedding.setContentType("park");
-        contentEmbedding.setContentId(park.getId());
-        contentEmbedding.setTextContent(textContent);
-        contentEmbedding.setEmbedding(embedding);
-        contentEmbedding.setModelVersion(modelVersion);
-
-        embeddingRepository.saveWithVector(contentEmbedding);
-        logger.debug("Generated embedding for park: {}", park.getName());
+    private List<float[]> embedBatch(List<PendingEmbedding> batch) throws InterruptedException {
+        requestRateLimiter.asBlocking().consume(1);
 
-        return true;
+        // RETRIEVAL_DOCUMENT task type for optimal RAG performance
+        return llmClient.generateEmbeddings(
+                batch.stream().map(PendingEmbedding::textContent).toList(),
+                "RETRIEVAL_DOCUMENT");
     }
 
     /**
@@ -455,5 +463,14 @@ public class EmbeddingService {
         public int moviesProcessed = 0;
         public int parksProcessed = 0;
         public int totalProcessed = 0;
+        public int unchanged = 0;
+        public int orphansDeleted = 0;
+    }
+
+    /**
+     * An entity waiting for its embedding.
+     */
+    private record PendingEmbedding(String contentType, Long contentId, String label, String textContent,
+            String contentHash) {
     }
 }
@@ -0,0 +1,11 @@
+package com.harmadavtian.disneyapp.service;
+
+/**
+ * Published by {@link EmbeddingService} after a batch embedding run, so that
+ * in-memory vector indexes can reload from content_embeddings.
+ *
+ * @param modelVersion Embedding model whose vectors changed
+ * @param generated    Number of embeddings written by the run
+ */
+public record EmbeddingsUpdatedEvent(String modelVersion, int generated) {
+}
@@ -5,15 +5,25 @@ import com.harmadavtian.disneyapp.dto.RagQueryRequestDto;
 import com.harmadavtian.disneyapp.dto.RagQueryResponseDto;
 import com.harmadavtian.disneyapp.model.ContentEmbedding;
 import com.harmadavtian.disneyapp.repository.ContentEmbeddingRepository;
+import com.harmadavtian.disneyapp.repository.ScoredEmbedding;
 import com.harmadavtian.disneyapp.service.llm.LLMClient;
+import com.harmadavtian.disneyapp.service.vector.VectorIndexService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 /**
@@ -31,7 +41,11 @@ import java.util.stream.Collectors;
  * - Similarity score normalization (0.0-1.0)
  * - Query normalization for robust embedding generation
  * - Query result caching (reduces API calls)
+ * - Single-flight: concurrent identical queries share one computation
+ * - Semantic answer cache for near-duplicate questions ({@link SemanticAnswerCache})
  * - Structured citations with excerpts
+ * - Streaming variant: citations first, then answer chunks
+ * - Async pipeline on virtual threads (citations overlap generation)
  * 
  * @author Harma Davtian
  */
@@ -43,11 +57,20 @@ public class RagService {
     private final LLMClient llmClient;
     private final ContentEmbeddingRepository embeddingRepository;
     private final CacheManager cacheManager;
-
-    public RagService(LLMClient llmClient, ContentEmbeddingRepository embeddingRepository, CacheManager cacheManager) {
+    private final VectorIndexService vectorIndexService;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final ExecutorService ragExecutor;
+    private final Map<String, CompletableFuture<RagQueryResponseDto>> inFlight = new ConcurrentHashMap<>();
+
+    public RagService(LLMClient llmClient, ContentEmbeddingRepository embeddingRepository, CacheManager cacheManager,
+            VectorIndexService vectorIndexService, SemanticAnswerCache semanticAnswerCache,
+            @Qualifier("ragExecutor") ExecutorService ragExecutor) {
         this.llmClient = llmClient;
         this.embeddingRepository = embeddingRepository;
         this.cacheManager = cacheManager;
+        this.vectorIndexService = vectorIndexService;
+        this.semanticAnswerCache = semanticAnswerCache;
+        this.ragExecutor = ragExecutor;
     }
 
     /**
@@ -55,14 +78,63 @@ public class RagService {
      * 
      * Cached by query + contentType to reduce API calls.
      * Cache key format: {query}_{contentType}
+     * On a miss, a near-duplicate question answered before (same content type
+     * and topK, query embeddings above the similarity threshold) is reused
+     * from {@link SemanticAnswerCache} instead of generating a new answer.
+     * Concurrent misses for the same cache key wait for the first caller's
+     * computation instead of repeating it.
+     * 
+     * Blocks until {@link #queryAsync} completes.
      * 
      * @param request Query request with query text and optional content type filter
      * @return Response with generated answer and source citations
      * @throws IllegalArgumentException if query is null or empty
      */
     public RagQueryResponseDto query(RagQueryRequestDto request) {
+        return await(queryAsync(request));
+    }
+
+    /**
+     * Execute RAG query without blocking the caller.
+     * 
+     * Same caching and coalescing as {@link #query}. The embedding, retrieval
+     * and generation calls run on {@code ragExecutor}; citations and the
+     * prompt are built concurrently once retrieval returns, and citations
+     * overlap the LLM call. A cache hit returns an already completed future.
+     * 
+     * @param request Query request with query text and optional content type filter
+     * @return Future of the response; fails with IllegalArgumentException if
+     *         the query is null or empty, or with the LLM exception
+     */
+    public CompletableFuture<RagQueryResponseDto> queryAsync(RagQueryRequestDto request) {
+        return answer(request, null);
+    }
+
+    /**
+     * Execute RAG query, streaming the result as it is produced.
+     * 
+     * Same caching and coalescing as {@link #query}. Citations are passed to
+     * {@code listener} as soon as retrieval finishes, then the answer in
+     * chunks as the LLM generates it. Cached answers arrive as one chunk.
+     * 
+     * @param request  Query request with query text and optional content type
+     *                 filter
+     * @param listener Receives sources, then answer chunks, one call at a time
+     * @return The complete response, once the answer is finished
+     * @throws IllegalArgumentException if query is null or empty
+     */
+    public RagQueryResponseDto streamQuery(RagQueryRequestDto request, RagStreamListener listener) {
+        return await(answer(request, Objects.requireNonNull(listener, "listener")));
+    }
+
+    /**
+     * {@link #queryAsync} and {@link #streamQuery}.
+     * 
+     * @param listener Null unless streaming
+     */
+    private CompletableFuture<RagQueryResponseDto> answer(RagQueryRequestDto request, RagStreamListener listener) {
         if (request.getQuery() == null || request.getQuery().isBlank()) {
-            throw new IllegalArgumentException("Query cannot be null or empty");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Query cannot be null or empty"));
         }
 
         // Check if result is in cache using CacheManager
@@ -78,111 +150,265 @@ public class RagService {
                 logger.info("RAG query cache HIT: '{}' (cacheKey: '{}')", request.getQuery(), cacheKey);
                 RagQueryResponseDto cachedResult = (RagQueryResponseDto) cachedValue.get();
                 // Return cached result with cached flag set to true
-                return new RagQueryResponseDto(
+                return CompletableFuture.completedFuture(replay(new RagQueryResponseDto(
                         cachedResult.getAnswer(),
                         cachedResult.getSources(),
                         cachedResult.getQuery(),
-                        true);
+                        true), listener));
             }
         }
 
         logger.info("RAG query cache MISS: '{}' (cacheKey: '{}')", request.getQuery(), cacheKey);
-        // Execute query and manually cache result
-        RagQueryResponseDto response = executeQuery(request);
 
-        // Manually put in cache
-        if (cache != null) {
-            cache.put(cacheKey, response);
+        // Single flight: concurrent misses for the same key share one computation
+        CompletableFuture<RagQueryResponseDto> flight = new CompletableFuture<>();
+        CompletableFuture<RagQueryResponseDto> leader = inFlight.putIfAbsent(cacheKey, flight);
+        if (leader != null) {
+            logger.info("RAG query joined in-flight computation: '{}' (cacheKey: '{}')",
+                    request.getQuery(), cacheKey);
+            return leader.thenApply(shared -> replay(new RagQueryResponseDto(
+                    shared.getAnswer(),
+                    shared.getSources(),
+                    shared.getQuery(),
+                    true), listener));
         }
 
-        return response;
+        CompletableFuture<RagQueryResponseDto> miss;
+        try {
+            miss = answerMiss(request, cache, cacheKey, listener);
+        } catch (RuntimeException e) {
+            miss = CompletableFuture.failedFuture(e);
+        }
+        // The response is cached (inside answerMiss) before the flight is removed
+        miss.whenComplete((response, error) -> {
+            inFlight.remove(cacheKey, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            } else {
+                flight.complete(response);
+            }
+        });
+        return flight;
     }
 
     /**
-     * Execute RAG query (without caching logic).
-     * 
-     * @param request Query request
-     * @return Response with cached flag set to false
+     * Cache-miss path of {@link #answer}, run by one caller per cache key at
+     * a time. The response is cached before the returned future completes,
+     * so a later caller finds it in the cache or in flight.
      */
-    private RagQueryResponseDto executeQuery(RagQueryRequestDto request) {
-        logger.info("Processing RAG query: '{}' (type: {})", request.getQuery(), request.getContentType());
+    private CompletableFuture<RagQueryResponseDto> answerMiss(RagQueryRequestDto request, Cache cache,
+            String cacheKey, RagStreamListener listener) {
+        // A flight for this key may have finished between our cache check and claiming it
+        if (cache != null) {
+            RagQueryResponseDto cachedResult = cache.get(cacheKey, RagQueryResponseDto.class);
+            if (cachedResult != null) {
+                return CompletableFuture.completedFuture(replay(new RagQueryResponseDto(
+                        cachedResult.getAnswer(),
+                        cachedResult.getSources(),
+                        cachedResult.getQuery(),
+                        true), listener));
+            }
+        }
 
-        // Step 1: Generate embeddings for BOTH original and normalized queries
-        // This ensures we find the right content regardless of how the user types
+        // Near-duplicate of an answered question? Compared by query embedding
         String normalizedQuery = normalizeForEmbedding(request.getQuery());
         logger.debug("Normalized for embedding: '{}' -> '{}'", request.getQuery(), normalizedQuery);
+        String modelVersion = llmClient.getEmbeddingModelName();
+        int topK = effectiveTopK(request);
+
+        return CompletableFuture.supplyAsync(() -> embedQuery(normalizedQuery), ragExecutor)
+                .thenCompose(queryEmbedding -> {
+                    Optional<RagQueryResponseDto> similar = semanticAnswerCache.find(
+                            modelVersion, request.getContentType(), topK, queryEmbedding);
+                    if (similar.isPresent()) {
+                        logger.info("RAG semantic cache HIT: '{}' answered as '{}'",
+                                request.getQuery(), similar.get().getQuery());
+                        return CompletableFuture.completedFuture(replay(new RagQueryResponseDto(
+                                similar.get().getAnswer(),
+                                similar.get().getSources(),
+                                request.getQuery(),
+                                true), listener));
+                    }
+
+                    // Execute query and manually cache result
+                    return executeQuery(request, queryEmbedding, topK, listener)
+                            .thenApply(response -> {
+                                if (cache != null) {
+                                    cache.put(cacheKey, response);
+                                }
+                                semanticAnswerCache.put(modelVersion, request.getContentType(), topK,
+                                        queryEmbedding, response);
+                                return response;
+                            });
+                });
+    }
 
-        // Use RETRIEVAL_QUERY task type - optimized for searching against
-        // RETRIEVAL_DOCUMENT embeddings
-        float[] queryEmbedding = llmClient.generateEmbedding(normalizedQuery, "RETRIEVAL_QUERY");
-        logger.debug("Generated query embedding: {} dimensions", queryEmbedding.length);
-
-        // Step 2: Retrieve similar embeddings
-        List<ContentEmbedding> similarEmbeddings = retrieveSimilarEmbeddings(
-                queryEmbedding,
-                request.getContentType(),
-                request.getTopK() != null ? request.getTopK() : 5);
-        logger.debug("Retrieved {} similar embeddings", similarEmbeddings.size());
-
-        if (similarEmbeddings.isEmpty()) {
-            logger.warn("No similar content found for query: '{}'", request.getQuery());
-            return new RagQueryResponseDto(
-                    "I couldn't find any relevant Disney content to answer your question. Please try rephrasing or ask about Disney characters, movies, or parks.",
-                    new ArrayList<>(),
-                    request.getQuery(),
-                    false);
+    /**
+     * Hand an already complete (cached or shared) response to a streaming
+     * caller: sources, then the whole answer as one chunk.
+     */
+    private static RagQueryResponseDto replay(RagQueryResponseDto response, RagStreamListener listener) {
+        if (listener != null) {
+            listener.onSources(response.getSources());
+            listener.onAnswerChunk(response.getAnswer());
         }
+        return response;
+    }
 
-        // Step 3: Build prompt with context
-        String prompt = buildPrompt(request.getQuery(), similarEmbeddings);
-        logger.debug("Built prompt: {} chars", prompt.length());
+    /**
+     * Wait for a query future. Its failure is rethrown unchanged, so blocking
+     * callers see the same exceptions (and 4xx/5xx) as before.
+     */
+    private static RagQueryResponseDto await(CompletableFuture<RagQueryResponseDto> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 
-        // Step 4: Generate response
-        String answer = llmClient.generateResponse(prompt);
-        logger.debug("Generated answer: {} chars", answer.length());
+    /**
+     * Execute RAG query (without caching logic) as a pipeline on
+     * {@code ragExecutor}.
+     * 
+     * Retrieval runs first. Then the prompt and the citations are built in
+     * parallel, and the LLM call starts as soon as the prompt is ready.
+     * Citations do not depend on the answer, so they are finished while
+     * generation is still running. When streaming, sources are delivered
+     * before the first answer chunk.
+     * 
+     * @param request        Query request
+     * @param queryEmbedding Embedding of the normalized query
+     *                       ({@link #embedQuery(String)})
+     * @param topK           Number of sources to retrieve
+     * @param listener       Streaming listener, or null to generate the answer
+     *                       in one call
+     * @return Future response with cached flag set to false
+     */
+    private CompletableFuture<RagQueryResponseDto> executeQuery(RagQueryRequestDto request,
+            float[] queryEmbedding, int topK, RagStreamListener listener) {
+        logger.info("Processing RAG query: '{}' (type: {})", request.getQuery(), request.getContentType());
+        logger.debug("Query embedding: {} dimensions", queryEmbedding.length);
 
-        // Step 5: Build citations
-        List<RagCitationDto> citations = buildCitations(similarEmbeddings, queryEmbedding);
+        // Step 2: Retrieve similar embeddings (with similarity, without vectors)
+        return CompletableFuture.supplyAsync(() -> retrieveSimilarEmbeddings(
+                queryEmbedding,
+                request.getContentType(),
+                topK), ragExecutor)
+                .thenCompose(similar -> {
+                    logger.debug("Retrieved {} similar embeddings", similar.size());
+
+                    if (similar.isEmpty()) {
+                        logger.warn("No similar content found for query: '{}'", request.getQuery());
+                        return CompletableFuture.completedFuture(replay(new RagQueryResponseDto(
+                                "I couldn't find any relevant Disney content to answer your question. Please try rephrasing or ask about Disney characters, movies, or parks.",
+                                new ArrayList<>(),
+                                request.getQuery(),
+                                false), listener));
+                    }
+
+                    // Step 3: Build prompt with context and citations, in parallel
+                    CompletableFuture<String> prompt = CompletableFuture.supplyAsync(() -> buildPrompt(
+                            request.getQuery(),
+                            similar.stream().map(ScoredEmbedding::embedding).toList()), ragExecutor);
+                    CompletableFuture<List<RagCitationDto>> citations = CompletableFuture.supplyAsync(
+                            () -> buildCitations(similar), ragExecutor);
+
+                    // Step 4: Generate response
+                    CompletableFuture<String> answer;
+                    if (listener == null) {
+                        answer = prompt.thenApplyAsync(llmClient::generateResponse, ragExecutor);
+                    } else {
+                        // Streaming callers get the sources before the first token
+                        answer = citations.thenAccept(listener::onSources)
+                                .thenCombine(prompt, (sent, text) -> text)
+                                .thenApplyAsync(text -> llmClient.streamResponse(text, listener::onAnswerChunk),
+                                        ragExecutor);
+                    }
+
+                    return answer.thenCombine(citations, (generated, sources) -> {
+                        logger.info("RAG query complete: {} sources, {} chars answer",
+                                sources.size(), generated.length());
+                        return new RagQueryResponseDto(generated, sources, request.getQuery(), false);
+                    });
+                });
+    }
 
-        logger.info("RAG query complete: {} sources, {} chars answer", citations.size(), answer.length());
+    /**
+     * Embedding of a normalized query, cached in "rag-query-embeddings" by
+     * (model, normalized text). The cache ignores content type and topK, so
+     * re-asking with a different filter skips the embedding API call.
+     * 
+     * The returned array is shared with the cache; callers must not modify it.
+     * 
+     * @param normalizedQuery Output of {@link #normalizeForEmbedding(String)}
+     * @return Query vector
+     */
+    private float[] embedQuery(String normalizedQuery) {
+        QueryEmbeddingKey key = new QueryEmbeddingKey(llmClient.getEmbeddingModelName(), normalizedQuery);
+        Cache cache = cacheManager.getCache("rag-query-embeddings");
+        if (cache != null) {
+            float[] cached = cache.get(key, float[].class);
+            if (cached != null) {
+                logger.debug("Query embedding cache HIT: '{}'", normalizedQuery);
+                return cached;
+            }
+        }
 
-        return new RagQueryResponseDto(answer, citations, request.getQuery(), false);
+        // Use RETRIEVAL_QUERY task type - optimized for searching against
+        // RETRIEVAL_DOCUMENT embeddings
+        float[] embedding = llmClient.generateEmbedding(normalizedQuery, "RETRIEVAL_QUERY");
+        if (cache != null) {
+            cache.put(key, embedding);
+        }
+        return embedding;
     }
 
     /**
-     * Retrieve top K similar embeddings from database.
+     * Retrieve top K similar embeddings.
      * 
-     * Uses pgvector cosine distance for semantic similarity.
-     * Filters by content type if specified.
+     * Served from the in-memory HNSW index when it is loaded for the current
+     * embedding model; otherwise falls back to pgvector cosine distance.
+     * Filters by content type if specified. Either way the similarity comes
+     * back with each hit and no vectors are transferred.
      * 
      * @param queryEmbedding Query vector (768 dimensions)
      * @param contentType    Optional content type filter
-     * @param topK           Number of results to retrieve (1-20)
-     * @return List of similar embeddings, ordered by similarity
+     * @param topK           Number of results to retrieve (1-20, see
+     *                       {@link #effectiveTopK})
+     * @return Similar embeddings with their similarity, ordered by similarity
      */
-    private List<ContentEmbedding> retrieveSimilarEmbeddings(
+    private List<ScoredEmbedding> retrieveSimilarEmbeddings(
             float[] queryEmbedding,
             String contentType,
             int topK) {
-        // Validate topK
-        topK = Math.max(1, Math.min(topK, 20));
-
         String modelVersion = llmClient.getEmbeddingModelName();
 
-        // If content type specified, filter by it
-        if (contentType != null && !contentType.isBlank()) {
-            return embeddingRepository.findTopKSimilarWithVectors(
-                    queryEmbedding,
-                    contentType,
-                    modelVersion,
-                    topK);
-        } else {
-            // Search across all content types (characters, movies, parks)
-            return embeddingRepository.findTopKSimilarAllTypes(
-                    queryEmbedding,
-                    modelVersion,
-                    topK);
+        Optional<List<ScoredEmbedding>> indexed = vectorIndexService.search(
+                queryEmbedding, contentType, modelVersion, topK);
+        if (indexed.isPresent()) {
+            logger.debug("Retrieved {} embeddings from in-memory vector index", indexed.get().size());
+            return indexed.get();
         }
+
+        // Null/blank content type searches across all types (characters, movies,
+        // parks); the DB returns its cosine distance, not the vectors
+        return embeddingRepository.findTopKSimilarScored(
+                queryEmbedding,
+                contentType,
+                modelVersion,
+                topK);
+    }
+
+    /**
+     * Requested topK (default 5), clamped to 1-20.
+     */
+    private static int effectiveTopK(RagQueryRequestDto request) {
+        int topK = request.getTopK() != null ? request.getTopK() : 5;
+        return Math.max(1, Math.min(topK, 20));
     }
 
     /**
@@ -234,20 +460,17 @@ public class RagService {
     /**
      * Build citation list from retrieved embeddings.
      * 
-     * Calculates similarity scores and creates citation DTOs.
-     * Similarity score normalization: 1 - (distance / 2)
+     * Creates citation DTOs using the similarity computed during retrieval
+     * (pgvector distance or the in-memory index), so nothing is recomputed.
      * 
-     * @param embeddings     Retrieved embeddings
-     * @param queryEmbedding Query vector
+     * @param hits Retrieved embeddings with their similarity
      * @return List of citations with similarity scores
      */
-    private List<RagCitationDto> buildCitations(
-            List<ContentEmbedding> embeddings,
-            float[] queryEmbedding) {
-        return embeddings.stream()
-                .map(emb -> {
-                    // Calculate cosine similarity
-                    double similarity = cosineSimilarity(queryEmbedding, emb.getEmbedding());
+    private List<RagCitationDto> buildCitations(List<ScoredEmbedding> hits) {
+        return hits.stream()
+                .map(hit -> {
+                    ContentEmbedding emb = hit.embedding();
+                    double similarity = hit.similarity();
 
                     // Create excerpt (first 200 chars)
                     String excerpt = emb.getTextContent().length() > 200
@@ -264,35 +487,6 @@ public class RagService {
                 .collect(Collectors.toList());
     }
 
-    /**
-     * Calculate cosine similarity between two vectors.
-     * 
-     * Formula: similarity = 1 - (dot(A, B) / (||A|| * ||B||))
-     * Result: 0.0-1.0 where 1.0 = most similar
-     * 
-     * @param a First vector
-     * @param b Second vector
-     * @return Cosine similarity (0.0-1.0)
-     */
-    private double cosineSimilarity(float[] a, float[] b) {
-        if (a.length != b.length) {
-            throw new IllegalArgumentException("Vectors must have same dimensions");
-        }
-
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-
-        for (int i = 0; i < a.length; i++) {
-            dotProduct += a[i] * b[i];
-            normA += a[i] * a[i];
-            normB += b[i] * b[i];
-        }
-
-        // Return similarity score (higher is better)
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
-    }
-
     /**
      * Extract content name from text content.
      * 
@@ -406,4 +600,10 @@ public class RagService {
 
         return result.toString();
     }
+
+    /**
+     * Key of the "rag-query-embeddings" cache.
+     */
+    private record QueryEmbeddingKey(String modelName, String normalizedQuery) {
+    }
 }
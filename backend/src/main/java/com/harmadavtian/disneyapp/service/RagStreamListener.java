@@ -0,0 +1,33 @@
+package com.harmadavtian.disneyapp.service;
+
+import com.harmadavtian.disneyapp.dto.RagCitationDto;
+
+import java.util.List;
+
+/**
+ * Receives a RAG answer as it is produced ({@link RagService#streamQuery}).
+ * 
+ * Calls arrive one at a time and in order: {@link #onSources} once, then
+ * {@link #onAnswerChunk} one or more times. They may come from different
+ * pipeline threads, but each call happens-before the next. Implementations should
+ * not throw; a failure to deliver (e.g. the client went away) must not abort
+ * the query, whose answer is still cached for other callers.
+ * 
+ * @author Harma Davtian
+ */
+public interface RagStreamListener {
+
+    /**
+     * Citations for the answer, available right after retrieval.
+     * 
+     * @param sources Source citations (may be empty)
+     */
+    void onSources(List<RagCitationDto> sources);
+
+    /**
+     * Next piece of the answer text.
+     * 
+     * @param chunk Text to append to what was received so far
+     */
+    void onAnswerChunk(String chunk);
+}
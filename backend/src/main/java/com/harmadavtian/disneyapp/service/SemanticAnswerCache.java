@@ -0,0 +1,167 @@
+package com.harmadavtian.disneyapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.harmadavtian.disneyapp.dto.RagQueryResponseDto;
+import com.harmadavtian.disneyapp.service.vector.MappedEmbeddingStore;
+import com.harmadavtian.disneyapp.service.vector.SimilarityKernel;
+import com.harmadavtian.disneyapp.service.vector.SimilarityKernels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reuses RAG answers for near-duplicate questions.
+ *
+ * Each generated answer is stored with its (unit-length) query embedding.
+ * A lookup compares the new query embedding with every entry of the same
+ * scope (embedding model, content type, topK) and returns the most similar
+ * answer when its cosine similarity reaches
+ * {@code rag.semantic-cache.similarity-threshold} (default 0.95), so
+ * rephrasings that differ in case, punctuation or filler words ("who is
+ * elsa", "Who is Elsa?") share one generated answer.
+ *
+ * Entries live in a Caffeine cache bounded by
+ * {@code rag.semantic-cache.max-entries} with a write TTL of
+ * {@code rag.semantic-cache.ttl-minutes}; the scan is a few hundred
+ * microseconds at the default size. The cache is cleared when embeddings are
+ * regenerated, since answers may cite outdated content.
+ *
+ * Metrics: {@code rag.semantic_cache.requests{result=hit|miss}} and
+ * {@code rag.semantic_cache.size}.
+ */
+@Component
+public class SemanticAnswerCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticAnswerCache.class);
+
+    private final boolean enabled;
+    private final double threshold;
+    private final Cache<Long, Entry> entries;
+    private final AtomicLong nextId = new AtomicLong();
+    private final SimilarityKernel kernel = SimilarityKernels.preferred();
+    private final Counter hits;
+    private final Counter misses;
+
+    public SemanticAnswerCache(MeterRegistry meterRegistry,
+            @Value("${rag.semantic-cache.enabled:true}") boolean enabled,
+            @Value("${rag.semantic-cache.similarity-threshold:0.95}") double threshold,
+            @Value("${rag.semantic-cache.max-entries:1000}") long maxEntries,
+            @Value("${rag.semantic-cache.ttl-minutes:30}") long ttlMinutes) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("rag.semantic-cache.similarity-threshold must be in (0, 1]");
+        }
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.hits = Counter.builder("rag.semantic_cache.requests")
+                .description("Semantic answer cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("rag.semantic_cache.requests")
+                .description("Semantic answer cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("rag.semantic_cache.size", entries, Cache::estimatedSize)
+                .description("Answers held by the semantic answer cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Most similar cached answer in the same scope, if it reaches the
+     * threshold.
+     *
+     * @param queryEmbedding Query vector (any length; normalised here)
+     */
+    public Optional<RagQueryResponseDto> find(String modelVersion, String contentType, int topK,
+            float[] queryEmbedding) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Scope scope = new Scope(modelVersion, normalizeType(contentType), topK);
+        float[] unitQuery = MappedEmbeddingStore.unit(queryEmbedding);
+        Entry best = null;
+        double bestSimilarity = threshold;
+        for (Entry entry : entries.asMap().values()) {
+            if (!entry.scope().equals(scope) || entry.unitQuery().length != unitQuery.length) {
+                continue;
+            }
+            double similarity = kernel.dot(entry.unitQuery(), unitQuery);
+            if (similarity >= bestSimilarity) {
+                best = entry;
+                bestSimilarity = similarity;
+            }
+        }
+        if (best == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        log.debug("Semantic cache HIT ({}): '{}'", String.format("%.3f", bestSimilarity),
+                best.response().getQuery());
+        return Optional.of(best.response());
+    }
+
+    /**
+     * Remember an answer for later near-duplicate questions.
+     */
+    public void put(String modelVersion, String contentType, int topK, float[] queryEmbedding,
+            RagQueryResponseDto response) {
+        if (!enabled) {
+            return;
+        }
+        entries.put(nextId.incrementAndGet(), new Entry(new Scope(modelVersion, normalizeType(contentType), topK),
+                MappedEmbeddingStore.unit(queryEmbedding), response));
+    }
+
+    /**
+     * Drop every entry.
+     *
+     * @return Number of entries removed (approximate)
+     */
+    public long purge() {
+        long size = entries.estimatedSize();
+        entries.invalidateAll();
+        log.info("Semantic answer cache purged ({} entries)", size);
+        return size;
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    public double hitRate() {
+        double lookups = hits.count() + misses.count();
+        return lookups == 0 ? 0 : hits.count() / lookups;
+    }
+
+    /**
+     * Answers may cite content that was just re-embedded.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmbeddingsUpdated(EmbeddingsUpdatedEvent event) {
+        purge();
+    }
+
+    private static String normalizeType(String contentType) {
+        return contentType == null || contentType.isBlank() ? "" : contentType;
+    }
+
+    private record Scope(String modelVersion, String contentType, int topK) {
+    }
+
+    private record Entry(Scope scope, float[] unitQuery, RagQueryResponseDto response) {
+    }
+}
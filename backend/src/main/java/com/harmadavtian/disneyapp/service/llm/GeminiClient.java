@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
 import org.springframework.retry.annotation.Backoff;
@@ -14,8 +15,17 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Google Gemini implementation of LLMClient.
@@ -28,11 +38,18 @@ import java.util.Map;
  * - Rate limit detection (429 status code)
  * - Structured error handling
  * 
+ * Default client ({@code llm.client=rest-template}); see
+ * {@link GeminiHttp2Client} for the HTTP/2 alternative.
+ * 
  * API Endpoints:
  * - Embeddings: POST
  * https://generativelanguage.googleapis.com/v1/models/text-embedding-004:embedContent
+ * - Batch embeddings: POST
+ * https://generativelanguage.googleapis.com/v1/models/text-embedding-004:batchEmbedContents
  * - Generation: POST
  * https://generativelanguage.googleapis.com/v1/models/gemini-2.0-flash:generateContent
+ * - Streaming generation: POST
+ * https://generativelanguage.googleapis.com/v1/models/gemini-2.0-flash:streamGenerateContent?alt=sse
  * 
  * Cost (as of 2024):
  * - Embeddings: Free up to 1500 req/day, then $0.00001/1000 chars
@@ -42,13 +59,16 @@ import java.util.Map;
  * @author Harma Davtian
  */
 @Service
+@ConditionalOnProperty(name = "llm.client", havingValue = "rest-template", matchIfMissing = true)
 public class GeminiClient implements LLMClient {
 
     private static final Logger logger = LoggerFactory.getLogger(GeminiClient.class);
 
-    private static final String EMBEDDING_MODEL = "text-embedding-004";
-    private static final String GENERATION_MODEL = "gemini-2.0-flash";
-    private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1/models";
+    static final String EMBEDDING_MODEL = "text-embedding-004";
+    static final String GENERATION_MODEL = "gemini-2.0-flash";
+    static final String BASE_URL = "https://generativelanguage.googleapis.com/v1/models";
+    /** batchEmbedContents accepts at most 100 requests. */
+    static final int MAX_EMBEDDING_BATCH = 100;
 
     private final RestTemplate restTemplate;
     private final String apiKey;
@@ -150,6 +170,119 @@ public class GeminiClient implements LLMClient {
         }
     }
 
+    /**
+     * Generate embeddings for up to {@value #MAX_EMBEDDING_BATCH} texts with
+     * one batchEmbedContents call.
+     * 
+     * API Request:
+     * POST
+     * https://generativelanguage.googleapis.com/v1/models/text-embedding-004:batchEmbedContents?key={API_KEY}
+     * Body: { "requests": [ { "model": "models/text-embedding-004", "content":
+     * { "parts": [{ "text": "..." }] }, "taskType": "..." }, ... ] }
+     * 
+     * API Response:
+     * { "embeddings": [ { "values": [0.123, ...] }, ... ] } (request order)
+     * 
+     * @param texts    Texts to embed (each max 40,000 chars)
+     * @param taskType Task type for every text
+     * @return One 768-dimensional vector per text, in order
+     * @throws IllegalArgumentException if a text is invalid or too many texts
+     * @throws LLMRateLimitException    if 429 Too Many Requests
+     * @throws LLMServiceException      if API fails after retries
+     */
+    @Override
+    @Retryable(retryFor = {
+            HttpServerErrorException.class }, maxAttempts = 3, backoff = @Backoff(delay = 1000, multiplier = 2))
+    public List<float[]> generateEmbeddings(List<String> texts, String taskType) {
+        if (texts.size() > MAX_EMBEDDING_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_EMBEDDING_BATCH + " texts per batch");
+        }
+        for (String text : texts) {
+            if (text == null || text.isBlank()) {
+                throw new IllegalArgumentException("Text cannot be null or empty");
+            }
+            if (text.length() > 40000) {
+                throw new IllegalArgumentException("Text exceeds 40,000 character limit");
+            }
+        }
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            String url = String.format("%s/%s:batchEmbedContents?key=%s", BASE_URL, EMBEDDING_MODEL, apiKey);
+
+            List<Map<String, Object>> requests = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                requests.add(Map.of(
+                        "model", "models/" + EMBEDDING_MODEL,
+                        "content", Map.of(
+                                "parts", new Object[] { Map.of("text", text) }),
+                        "taskType", taskType));
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+            HttpEntity<Map<String, Object>> request = new HttpEntity<>(Map.of("requests", requests), headers);
+
+            logger.debug("Generating {} embeddings in one batch with task type: {}", texts.size(), taskType);
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    url,
+                    HttpMethod.POST,
+                    request,
+                    String.class);
+
+            return parseBatchEmbeddings(objectMapper.readTree(response.getBody()), texts.size());
+
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                logger.warn("Gemini rate limit exceeded");
+                throw new LLMRateLimitException("Rate limit exceeded", e);
+            }
+            logger.error("Gemini API client error: {}", e.getMessage());
+            throw new LLMServiceException("Failed to generate embeddings", e);
+        } catch (HttpServerErrorException e) {
+            logger.error("Gemini API server error: {}", e.getMessage());
+            throw new LLMServiceException("Gemini server error", e);
+        } catch (LLMServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unexpected error generating embeddings", e);
+            throw new LLMServiceException("Failed to generate embeddings", e);
+        }
+    }
+
+    @Override
+    public int maxEmbeddingBatchSize() {
+        return MAX_EMBEDDING_BATCH;
+    }
+
+    /**
+     * Vectors from a batchEmbedContents response, which must hold exactly
+     * {@code expected} embeddings.
+     */
+    static List<float[]> parseBatchEmbeddings(JsonNode root, int expected) {
+        JsonNode embeddingsNode = root.path("embeddings");
+        if (!embeddingsNode.isArray() || embeddingsNode.size() != expected) {
+            throw new LLMServiceException("Invalid batch embedding response format");
+        }
+        List<float[]> embeddings = new ArrayList<>(expected);
+        for (JsonNode embeddingNode : embeddingsNode) {
+            JsonNode valuesNode = embeddingNode.path("values");
+            if (!valuesNode.isArray()) {
+                throw new LLMServiceException("Invalid batch embedding response format");
+            }
+            float[] embedding = new float[valuesNode.size()];
+            for (int i = 0; i < valuesNode.size(); i++) {
+                embedding[i] = (float) valuesNode.get(i).asDouble();
+            }
+            embeddings.add(embedding);
+        }
+        return embeddings;
+    }
+
     /**
      * Generate text response using Gemini 1.5 Flash.
      * 
@@ -230,6 +363,114 @@ public class GeminiClient implements LLMClient {
         }
     }
 
+    /**
+     * Stream a text response using Gemini streamGenerateContent.
+     * 
+     * API Request:
+     * POST
+     * https://generativelanguage.googleapis.com/v1/models/gemini-2.0-flash:streamGenerateContent?alt=sse&key={API_KEY}
+     * Body: same as generateContent
+     * 
+     * API Response (Server-Sent Events, one GenerateContentResponse each):
+     * data: { "candidates": [{ "content": { "parts": [{ "text": "..." }] } }] }
+     * 
+     * Not retried: chunks already handed to {@code onChunk} cannot be taken
+     * back. The 30s read timeout applies between chunks, not to the whole
+     * answer.
+     * 
+     * @param prompt  Full prompt including context and query
+     * @param onChunk Receives each non-empty text chunk
+     * @return Complete generated text response
+     * @throws IllegalArgumentException if prompt is null or empty
+     * @throws LLMRateLimitException    if 429 Too Many Requests
+     * @throws LLMServiceException      if the API call or stream fails
+     */
+    @Override
+    public String streamResponse(String prompt, Consumer<String> onChunk) {
+        if (prompt == null || prompt.isBlank()) {
+            throw new IllegalArgumentException("Prompt cannot be null or empty");
+        }
+
+        try {
+            String url = String.format("%s/%s:streamGenerateContent?alt=sse&key=%s", BASE_URL, GENERATION_MODEL,
+                    apiKey);
+
+            Map<String, Object> requestBody = Map.of(
+                    "contents", new Object[] {
+                            Map.of("parts", new Object[] { Map.of("text", prompt) })
+                    });
+            byte[] body = objectMapper.writeValueAsBytes(requestBody);
+
+            logger.debug("Streaming response for prompt: {} chars", prompt.length());
+
+            String generatedText = restTemplate.execute(
+                    url,
+                    HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                        request.getBody().write(body);
+                    },
+                    response -> parseStream(
+                            new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))
+                                    .lines(),
+                            objectMapper, onChunk));
+
+            logger.debug("Streamed response: {} chars", generatedText.length());
+            return generatedText;
+
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                logger.warn("Gemini rate limit exceeded");
+                throw new LLMRateLimitException("Rate limit exceeded", e);
+            }
+            logger.error("Gemini API client error: {}", e.getMessage());
+            throw new LLMServiceException("Failed to stream response", e);
+        } catch (HttpServerErrorException e) {
+            logger.error("Gemini API server error: {}", e.getMessage());
+            throw new LLMServiceException("Gemini server error", e);
+        } catch (LLMServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Unexpected error streaming response", e);
+            throw new LLMServiceException("Failed to stream response", e);
+        }
+    }
+
+    /**
+     * Read {@code data:} lines of a streamGenerateContent SSE body, passing
+     * the text of each chunk to {@code onChunk}. Shared with
+     * {@link GeminiHttp2Client}.
+     * 
+     * @return Concatenated text of all chunks
+     */
+    static String parseStream(Stream<String> lines, ObjectMapper objectMapper, Consumer<String> onChunk)
+            throws IOException {
+        StringBuilder generatedText = new StringBuilder();
+        Iterator<String> it = lines.iterator();
+        while (it.hasNext()) {
+            String line = it.next();
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            JsonNode parts = objectMapper.readTree(line.substring(5).trim())
+                    .path("candidates").path(0)
+                    .path("content")
+                    .path("parts");
+            for (JsonNode part : parts) {
+                String text = part.path("text").asText("");
+                if (!text.isEmpty()) {
+                    generatedText.append(text);
+                    onChunk.accept(text);
+                }
+            }
+        }
+        if (generatedText.isEmpty()) {
+            throw new LLMServiceException("Invalid generation response format");
+        }
+        return generatedText.toString();
+    }
+
     @Override
     public String getEmbeddingModelName() {
         return EMBEDDING_MODEL;
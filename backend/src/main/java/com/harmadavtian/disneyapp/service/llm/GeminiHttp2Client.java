@@ -0,0 +1,351 @@
+package com.harmadavtian.disneyapp.service.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Google Gemini implementation of LLMClient on java.net.http.HttpClient.
+ * 
+ * Alternative to {@link GeminiClient}, selected with
+ * {@code llm.client=http2}. Same models, endpoints and exceptions, but:
+ * - One shared HTTP/2 client: concurrent requests are multiplexed as
+ * streams over a single connection per origin instead of one connection each
+ * - Requests are sent with sendAsync; retries (3 attempts, 1s → 2s delays
+ * on 5xx) are scheduled without holding a thread
+ * - Request bodies are written from Jackson tree nodes; responses are read
+ * as bytes
+ * - The API key is sent in the x-goog-api-key header, not the URL
+ * 
+ * Blocking LLMClient calls wait on the async send; RagService runs them on
+ * virtual threads, so a waiting query holds neither a platform thread nor a
+ * connection.
+ * 
+ * HTTP/2 needs no connection pool tuning. The JDK's
+ * {@code jdk.httpclient.connectionPoolSize} and
+ * {@code jdk.httpclient.keepalive.timeout} properties only affect the
+ * HTTP/1.1 fallback and, being JVM-wide, belong in {@code JAVA_OPTS}.
+ * 
+ * @author Harma Davtian
+ */
+@Service
+@ConditionalOnProperty(name = "llm.client", havingValue = "http2")
+public class GeminiHttp2Client implements LLMClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiHttp2Client.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long INITIAL_BACKOFF_MS = 1000;
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final String apiKey;
+    private final ObjectMapper objectMapper;
+    private final Duration requestTimeout;
+
+    public GeminiHttp2Client(
+            @Value("${gemini.api.key}") String apiKey,
+            ObjectMapper objectMapper,
+            @Qualifier("ragExecutor") ExecutorService executor,
+            @Value("${llm.http2.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${llm.http2.request-timeout-ms:30000}") long requestTimeoutMs) {
+        this.apiKey = apiKey;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(executor)
+                .build();
+        logger.info("Gemini HTTP/2 client: connect timeout {}ms, request timeout {}ms",
+                connectTimeoutMs, requestTimeoutMs);
+    }
+
+    /**
+     * Generate embedding using Gemini text-embedding-004.
+     * 
+     * Same request and response as {@link GeminiClient#generateEmbedding}.
+     * 
+     * @param text Text to embed (max 10,000 tokens ≈ 40,000 chars)
+     * @return 768-dimensional vector (float32 array)
+     * @throws IllegalArgumentException if text is null, empty, or too long
+     * @throws LLMRateLimitException    if 429 Too Many Requests
+     * @throws LLMServiceException      if API fails after retries
+     */
+    @Override
+    public float[] generateEmbedding(String text, String taskType) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Text cannot be null or empty");
+        }
+        if (text.length() > 40000) {
+            throw new IllegalArgumentException("Text exceeds 40,000 character limit");
+        }
+
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        requestBody.put("model", "models/" + GeminiClient.EMBEDDING_MODEL);
+        requestBody.putObject("content").putArray("parts").addObject().put("text", text);
+        requestBody.put("taskType", taskType);
+
+        logger.debug("Generating embedding for text ({} chars) with task type: {}", text.length(), taskType);
+
+        JsonNode valuesNode = call(GeminiClient.EMBEDDING_MODEL + ":embedContent", requestBody,
+                "Failed to generate embedding")
+                .path("embedding").path("values");
+        if (!valuesNode.isArray()) {
+            throw new LLMServiceException("Invalid embedding response format");
+        }
+
+        float[] embedding = new float[valuesNode.size()];
+        for (int i = 0; i < valuesNode.size(); i++) {
+            embedding[i] = (float) valuesNode.get(i).asDouble();
+        }
+
+        logger.debug("Generated embedding: {} dimensions", embedding.length);
+        return embedding;
+    }
+
+    /**
+     * Generate embeddings with one batchEmbedContents call.
+     * 
+     * Same request and response as {@link GeminiClient#generateEmbeddings}.
+     * 
+     * @param texts    Texts to embed (each max 40,000 chars)
+     * @param taskType Task type for every text
+     * @return One 768-dimensional vector per text, in order
+     * @throws IllegalArgumentException if a text is invalid or too many texts
+     * @throws LLMRateLimitException    if 429 Too Many Requests
+     * @throws LLMServiceException      if API fails after retries
+     */
+    @Override
+    public List<float[]> generateEmbeddings(List<String> texts, String taskType) {
+        if (texts.size() > GeminiClient.MAX_EMBEDDING_BATCH) {
+            throw new IllegalArgumentException("At most " + GeminiClient.MAX_EMBEDDING_BATCH + " texts per batch");
+        }
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        ArrayNode requests = requestBody.putArray("requests");
+        for (String text : texts) {
+            if (text == null || text.isBlank()) {
+                throw new IllegalArgumentException("Text cannot be null or empty");
+            }
+            if (text.length() > 40000) {
+                throw new IllegalArgumentException("Text exceeds 40,000 character limit");
+            }
+            ObjectNode request = requests.addObject();
+            request.put("model", "models/" + GeminiClient.EMBEDDING_MODEL);
+            request.putObject("content").putArray("parts").addObject().put("text", text);
+            request.put("taskType", taskType);
+        }
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+
+        logger.debug("Generating {} embeddings in one batch with task type: {}", texts.size(), taskType);
+
+        return GeminiClient.parseBatchEmbeddings(
+                call(GeminiClient.EMBEDDING_MODEL + ":batchEmbedContents", requestBody,
+                        "Failed to generate embeddings"),
+                texts.size());
+    }
+
+    @Override
+    public int maxEmbeddingBatchSize() {
+        return GeminiClient.MAX_EMBEDDING_BATCH;
+    }
+
+    /**
+     * Generate text response using Gemini generateContent.
+     * 
+     * @param prompt Full prompt including context and query
+     * @return Generated text response
+     * @throws IllegalArgumentException if prompt is null or empty
+     * @throws LLMRateLimitException    if 429 Too Many Requests
+     * @throws LLMServiceException      if API fails after retries
+     */
+    @Override
+    public String generateResponse(String prompt) {
+        if (prompt == null || prompt.isBlank()) {
+            throw new IllegalArgumentException("Prompt cannot be null or empty");
+        }
+
+        logger.debug("Generating response for prompt: {} chars", prompt.length());
+
+        JsonNode textNode = call(GeminiClient.GENERATION_MODEL + ":generateContent", generationBody(prompt),
+                "Failed to generate response")
+                .path("candidates").path(0)
+                .path("content")
+                .path("parts").path(0)
+                .path("text");
+        if (textNode.isMissingNode()) {
+            throw new LLMServiceException("Invalid generation response format");
+        }
+
+        String generatedText = textNode.asText();
+        logger.debug("Generated response: {} chars", generatedText.length());
+        return generatedText;
+    }
+
+    /**
+     * Stream a text response using Gemini streamGenerateContent (SSE).
+     * 
+     * Not retried: chunks already handed to {@code onChunk} cannot be taken
+     * back. The request timeout applies until the response headers arrive.
+     * 
+     * @param prompt  Full prompt including context and query
+     * @param onChunk Receives each non-empty text chunk
+     * @return Complete generated text response
+     * @throws IllegalArgumentException if prompt is null or empty
+     * @throws LLMRateLimitException    if 429 Too Many Requests
+     * @throws LLMServiceException      if the API call or stream fails
+     */
+    @Override
+    public String streamResponse(String prompt, Consumer<String> onChunk) {
+        if (prompt == null || prompt.isBlank()) {
+            throw new IllegalArgumentException("Prompt cannot be null or empty");
+        }
+
+        logger.debug("Streaming response for prompt: {} chars", prompt.length());
+
+        HttpResponse<Stream<String>> response;
+        try {
+            response = httpClient.send(
+                    request(GeminiClient.GENERATION_MODEL + ":streamGenerateContent?alt=sse", generationBody(prompt)),
+                    HttpResponse.BodyHandlers.ofLines());
+        } catch (IOException e) {
+            logger.error("Gemini API connection error: {}", e.getMessage());
+            throw new LLMServiceException("Failed to stream response", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LLMServiceException("Interrupted while streaming response", e);
+        }
+
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() != 200) {
+                throwForStatus(response.statusCode(), String.join("\n", lines.toList()),
+                        "Failed to stream response");
+            }
+            String generatedText = GeminiClient.parseStream(lines, objectMapper, onChunk);
+            logger.debug("Streamed response: {} chars", generatedText.length());
+            return generatedText;
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Gemini stream read error: {}", e.getMessage());
+            throw new LLMServiceException("Failed to stream response", e);
+        }
+    }
+
+    @Override
+    public String getEmbeddingModelName() {
+        return GeminiClient.EMBEDDING_MODEL;
+    }
+
+    @Override
+    public String getGenerationModelName() {
+        return GeminiClient.GENERATION_MODEL;
+    }
+
+    /**
+     * POST {@code body} to {@code BASE_URL/<path>}, retrying 5xx and
+     * connection failures, and parse the JSON response.
+     */
+    private JsonNode call(String path, ObjectNode body, String failure) {
+        HttpResponse<byte[]> response;
+        try {
+            response = sendWithRetry(request(path, body), 1).join();
+        } catch (CompletionException e) {
+            logger.error("Gemini API connection error: {}", e.getCause().getMessage());
+            throw new LLMServiceException(failure, e.getCause());
+        }
+        if (response.statusCode() / 100 != 2) {
+            throwForStatus(response.statusCode(), new String(response.body(), StandardCharsets.UTF_8), failure);
+        }
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new LLMServiceException(failure, e);
+        }
+    }
+
+    /**
+     * Send asynchronously; a 5xx or I/O failure is retried after 1s, then
+     * 2s, on a delayed executor rather than a sleeping thread.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> sendWithRetry(HttpRequest request, int attempt) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    boolean retryable = error != null || response.statusCode() >= 500;
+                    if (!retryable || attempt >= MAX_ATTEMPTS) {
+                        return error != null
+                                ? CompletableFuture.<HttpResponse<byte[]>>failedFuture(error)
+                                : CompletableFuture.completedFuture(response);
+                    }
+                    long delay = INITIAL_BACKOFF_MS << (attempt - 1);
+                    logger.warn("Gemini request failed ({}), retrying in {}ms (attempt {}/{})",
+                            error != null ? error.getMessage() : response.statusCode(),
+                            delay, attempt + 1, MAX_ATTEMPTS);
+                    return CompletableFuture
+                            .supplyAsync(() -> request, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS,
+                                    executor))
+                            .thenCompose(retry -> sendWithRetry(retry, attempt + 1));
+                })
+                .thenCompose(next -> next);
+    }
+
+    private HttpRequest request(String path, ObjectNode body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(GeminiClient.BASE_URL + "/" + path))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("x-goog-api-key", apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new LLMServiceException("Failed to serialize request", e);
+        }
+    }
+
+    private ObjectNode generationBody(String prompt) {
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        requestBody.putArray("contents").addObject().putArray("parts").addObject().put("text", prompt);
+        return requestBody;
+    }
+
+    /**
+     * Map a non-2xx status to the same exceptions as GeminiClient.
+     */
+    private static void throwForStatus(int status, String detail, String failure) {
+        if (status == 429) {
+            logger.warn("Gemini rate limit exceeded");
+            throw new LLMRateLimitException("Rate limit exceeded");
+        }
+        if (status >= 500) {
+            logger.error("Gemini API server error: {} {}", status, detail);
+            throw new LLMServiceException("Gemini server error");
+        }
+        logger.error("Gemini API client error: {} {}", status, detail);
+        throw new LLMServiceException(failure);
+    }
+
+}
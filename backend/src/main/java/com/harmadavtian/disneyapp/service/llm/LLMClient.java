@@ -1,5 +1,9 @@
 package com.harmadavtian.disneyapp.service.llm;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 /**
  * Provider-agnostic interface for LLM (Large Language Model) operations.
  * 
@@ -38,6 +42,38 @@ public interface LLMClient {
      */
     float[] generateEmbedding(String text, String taskType);
 
+    /**
+     * Generate embeddings for several texts in one request.
+     * 
+     * Used for bulk (re-)embedding. The default implementation calls
+     * {@link #generateEmbedding} once per text; providers with a batch
+     * endpoint override it.
+     * 
+     * @param texts    Texts to embed (at most {@link #maxEmbeddingBatchSize()})
+     * @param taskType Task type, as for {@link #generateEmbedding}
+     * @return One vector per text, in the same order
+     * @throws IllegalArgumentException if a text is invalid or the batch is
+     *                                  too large
+     * @throws LLMRateLimitException    if rate limit exceeded
+     * @throws LLMServiceException      if API call fails after retries
+     */
+    default List<float[]> generateEmbeddings(List<String> texts, String taskType) {
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(generateEmbedding(text, taskType));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Largest number of texts accepted by {@link #generateEmbeddings}.
+     * 
+     * @return Maximum batch size
+     */
+    default int maxEmbeddingBatchSize() {
+        return 1;
+    }
+
     /**
      * Generate text response from prompt.
      * 
@@ -52,6 +88,26 @@ public interface LLMClient {
      */
     String generateResponse(String prompt);
 
+    /**
+     * Generate text response from prompt, delivering it as it is produced.
+     * 
+     * {@code onChunk} receives successive pieces of the answer on the calling
+     * thread; concatenated they equal the returned text. Providers without a
+     * streaming API deliver the whole response as one chunk.
+     * 
+     * @param prompt  Full prompt including context and query
+     * @param onChunk Receives each piece of generated text in order
+     * @return Complete generated text response
+     * @throws IllegalArgumentException if prompt is null or empty
+     * @throws LLMRateLimitException    if rate limit exceeded
+     * @throws LLMServiceException      if API call fails
+     */
+    default String streamResponse(String prompt, Consumer<String> onChunk) {
+        String response = generateResponse(prompt);
+        onChunk.accept(response);
+        return response;
+    }
+
     /**
      * Get embedding model name.
      * Used for tracking which model version generated embeddings.
@@ -0,0 +1,37 @@
+package com.harmadavtian.disneyapp.service.search;
+
+import java.util.Locale;
+
+/**
+ * How much highlight/snippet work a search request asks for.
+ *
+ * Highlights are only ever rendered for results that make it into the
+ * response page; this controls how much is rendered for each of them.
+ */
+public enum HighlightMode {
+
+    /** No highlights; the {@code highlights} map is omitted. */
+    NONE,
+
+    /** Only the first matching field, in scope order. */
+    FIRST,
+
+    /** Every matching field of the scope (default). */
+    ALL;
+
+    /**
+     * Parse a request parameter value; blank means {@link #ALL}.
+     *
+     * @throws IllegalArgumentException for unknown values
+     */
+    public static HighlightMode parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("highlights must be one of none, first, all.");
+        }
+    }
+}
@@ -5,82 +5,125 @@ import com.harmadavtian.disneyapp.dto.search.*;
 import com.harmadavtian.disneyapp.model.Character;
 import com.harmadavtian.disneyapp.model.DisneyParkAttraction;
 import com.harmadavtian.disneyapp.model.Movie;
-import com.harmadavtian.disneyapp.repository.CharacterRepository;
-import com.harmadavtian.disneyapp.repository.DisneyParkAttractionRepository;
-import com.harmadavtian.disneyapp.repository.MovieRepository;
+import com.harmadavtian.disneyapp.service.CatalogReseededEvent;
+import com.harmadavtian.disneyapp.service.search.index.CategoryIndex;
+import com.harmadavtian.disneyapp.service.search.index.FacetIndex;
+import com.harmadavtian.disneyapp.service.search.index.FieldIndex;
+import com.harmadavtian.disneyapp.service.search.index.FuzzyQuery;
+import com.harmadavtian.disneyapp.service.search.index.SearchIndexService;
+import com.harmadavtian.disneyapp.service.search.index.SuggestionTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
 
 @Service
 public class SearchAggregationService {
 
+    private static final Logger log = LoggerFactory.getLogger(SearchAggregationService.class);
+
     private static final int DEFAULT_LIMIT = 10;
+    private static final int DEFAULT_SUGGEST_LIMIT = 8;
     private static final Set<String> DESCRIPTION_FIELDS = Set.of("short_description", "long_description", "theme");
 
-    private final MovieRepository movieRepository;
-    private final CharacterRepository characterRepository;
-    private final DisneyParkAttractionRepository attractionRepository;
+    private final SearchIndexService searchIndexService;
     private final SearchCapabilitiesProperties capabilities;
+    private final SearchResultSetCache resultSetCache;
+    private final CacheManager cacheManager;
+    private final ExecutorService searchExecutor;
+    private final long categoryTimeoutMs;
 
-    private static final Map<String, Function<Movie, String>> MOVIE_FIELD_EXTRACTORS = Map.ofEntries(
-            Map.entry("title", Movie::getTitle),
-            Map.entry("short_description", Movie::getShortDescription),
-            Map.entry("long_description", Movie::getLongDescription),
-            Map.entry("creation_year",
-                    movie -> movie.getCreationYear() == null ? null : movie.getCreationYear().toString()),
-            Map.entry("hidden_tags", Movie::getHiddenTags),
-            Map.entry("movie_rating", Movie::getMovieRating));
-
-    private static final Map<String, Function<Character, String>> CHARACTER_FIELD_EXTRACTORS = Map.ofEntries(
-            Map.entry("name", Character::getName),
-            Map.entry("short_description", Character::getShortDescription),
-            Map.entry("long_description", Character::getLongDescription),
-            Map.entry("first_appearance", Character::getFirstAppearance),
-            Map.entry("franchise", Character::getFranchise),
-            Map.entry("character_type", Character::getCharacterType));
-
-    private static final Map<String, Function<DisneyParkAttraction, String>> PARK_FIELD_EXTRACTORS = Map.ofEntries(
-            Map.entry("name", DisneyParkAttraction::getName),
-            Map.entry("short_description", DisneyParkAttraction::getShortDescription),
-            Map.entry("theme", DisneyParkAttraction::getTheme),
-            Map.entry("land_area", DisneyParkAttraction::getLandArea),
-            Map.entry("attraction_type", DisneyParkAttraction::getAttractionType),
-            Map.entry("thrill_level", DisneyParkAttraction::getThrillLevel));
-
-    public SearchAggregationService(MovieRepository movieRepository,
-            CharacterRepository characterRepository,
-            DisneyParkAttractionRepository attractionRepository,
-            SearchCapabilitiesProperties capabilities) {
-        this.movieRepository = movieRepository;
-        this.characterRepository = characterRepository;
-        this.attractionRepository = attractionRepository;
+    public SearchAggregationService(SearchIndexService searchIndexService,
+            SearchCapabilitiesProperties capabilities,
+            SearchResultSetCache resultSetCache,
+            CacheManager cacheManager,
+            @Qualifier("searchExecutor") ExecutorService searchExecutor,
+            @Value("${search.category-timeout-ms:500}") long categoryTimeoutMs) {
+        this.searchIndexService = searchIndexService;
         this.capabilities = capabilities;
+        this.resultSetCache = resultSetCache;
+        this.cacheManager = cacheManager;
+        this.searchExecutor = searchExecutor;
+        this.categoryTimeoutMs = categoryTimeoutMs;
     }
 
     public SearchResponseDto search(String rawQuery,
             Set<String> requestedCategories,
             Map<String, String> scopeOverrides,
             Integer limitPerCategory,
-            String matchMode) {
+            String matchMode,
+            HighlightMode highlightMode,
+            String cursor,
+            Map<String, List<String>> facetFilters,
+            boolean includeFacets) {
         if (!StringUtils.hasText(rawQuery) || rawQuery.trim().length() < 2) {
             throw new IllegalArgumentException("Search query must be at least 2 characters long.");
         }
         String normalizedQuery = rawQuery.trim();
         int limit = (limitPerCategory == null || limitPerCategory <= 0) ? DEFAULT_LIMIT : limitPerCategory;
-        String effectiveMatchMode = (matchMode == null || matchMode.isBlank()) ? "partial" : matchMode;
+        String effectiveMatchMode = (matchMode == null || matchMode.isBlank())
+                ? "partial"
+                : matchMode.toLowerCase(Locale.ROOT);
+        HighlightMode highlights = highlightMode == null ? HighlightMode.ALL : highlightMode;
+        Map<String, List<String>> filters = normalizeFilters(facetFilters);
 
         Map<String, SearchCapabilitiesProperties.Category> configuredCategories = capabilities.getCategories();
         Set<String> categoriesToProcess = requestedCategories == null || requestedCategories.isEmpty()
                 ? configuredCategories.keySet()
                 : requestedCategories;
+        int offset = 0;
 
-        SearchResponseDto response = new SearchResponseDto();
+        // First pages of popular queries are served from the search-results cache
+        Cache cache = StringUtils.hasText(cursor) ? null : cacheManager.getCache("search-results");
+        SearchCacheKey cacheKey = null;
+        if (cache != null) {
+            cacheKey = SearchCacheKey.of(normalizedQuery, categoriesToProcess, scopeOverrides, limit,
+                    effectiveMatchMode, highlights, filters, includeFacets, searchIndexService.generation());
+            SearchResponseDto cached = cache.get(cacheKey, SearchResponseDto.class);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // A cursor pins the category, scope and match mode of the page it continues
+        if (StringUtils.hasText(cursor)) {
+            SearchCursor decoded = SearchCursor.decode(cursor);
+            if (decoded.queryHash() != queryHash(normalizedQuery, filters)) {
+                throw new IllegalArgumentException("Search cursor does not belong to this query.");
+            }
+            categoriesToProcess = Set.of(decoded.category());
+            scopeOverrides = Map.of(decoded.category(), decoded.scope());
+            effectiveMatchMode = decoded.matchMode();
+            offset = decoded.offset();
+        }
+
+        // Fan out one task per category; latency approaches the slowest category
+        Map<String, Future<SearchCategoryResultDto>> pending = new LinkedHashMap<>();
         for (String categoryKey : categoriesToProcess) {
             SearchCapabilitiesProperties.Category category = configuredCategories.get(categoryKey);
             if (category == null) {
@@ -89,35 +132,111 @@ public class SearchAggregationService {
             String scopeKey = scopeOverrides.getOrDefault(categoryKey, "basic");
             SearchCapabilitiesProperties.Scope scope = category.getScopes().get(scopeKey);
             if (scope == null) {
-                scope = category.getScopes().get("basic");
+                scopeKey = "basic";
+                scope = category.getScopes().get(scopeKey);
             }
             List<String> fields = scope == null ? List.of() : scope.getFields();
             if (fields.isEmpty()) {
                 continue;
             }
 
-            SearchCategoryResultDto categoryResult = switch (categoryKey) {
-                case "movies" -> buildMovieResults(normalizedQuery, fields, limit, effectiveMatchMode);
-                case "characters" -> buildCharacterResults(normalizedQuery, fields, limit, effectiveMatchMode);
-                case "parks" -> buildParkResults(normalizedQuery, fields, limit, effectiveMatchMode);
+            CategoryQuery categoryQuery = new CategoryQuery(categoryKey, category, scopeKey, fields,
+                    normalizedQuery, effectiveMatchMode, highlights, filters, includeFacets, offset, limit);
+            pending.put(categoryKey, searchExecutor.submit(() -> switch (categoryKey) {
+                case "movies" -> buildMovieResults(categoryQuery);
+                case "characters" -> buildCharacterResults(categoryQuery);
+                case "parks" -> buildParkResults(categoryQuery);
                 default -> null;
-            };
+            }));
+        }
 
+        SearchResponseDto response = new SearchResponseDto();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(categoryTimeoutMs);
+        for (Map.Entry<String, Future<SearchCategoryResultDto>> entry : pending.entrySet()) {
+            SearchCategoryResultDto categoryResult = awaitCategory(entry.getKey(), entry.getValue(), deadline);
             if (categoryResult != null) {
-                response.getCategories().put(categoryKey, categoryResult);
+                response.getCategories().put(entry.getKey(), categoryResult);
             }
         }
 
+        // Never cache a response that timed out or failed in some category
+        boolean complete = response.getCategories().values().stream()
+                .noneMatch(result -> Boolean.TRUE.equals(result.getIncomplete()));
+        if (cache != null && complete) {
+            cache.put(cacheKey, response);
+        }
         return response;
     }
 
+    /**
+     * Drop cached responses once a reseed has committed. Entries are also keyed
+     * by index generation, so nothing stale is served while the index rebuilds.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogReseeded(CatalogReseededEvent event) {
+        Cache cache = cacheManager.getCache("search-results");
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Wait for one category until the shared deadline. A category that times
+     * out or fails is reported as incomplete rather than failing the request.
+     */
+    private SearchCategoryResultDto awaitCategory(String categoryKey, Future<SearchCategoryResultDto> future,
+            long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Search category '{}' exceeded {} ms, returning partial results", categoryKey,
+                    categoryTimeoutMs);
+            return SearchCategoryResultDto.incomplete();
+        } catch (ExecutionException e) {
+            log.error("Search category '{}' failed", categoryKey, e.getCause());
+            return SearchCategoryResultDto.incomplete();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return SearchCategoryResultDto.incomplete();
+        }
+    }
+
+    /**
+     * Autocomplete suggestions for a prefix from the in-memory suggestion
+     * tries; never touches the repositories.
+     */
+    public List<SearchSuggestionDto> suggest(String rawQuery, Set<String> requestedCategories, Integer limit) {
+        if (!StringUtils.hasText(rawQuery)) {
+            throw new IllegalArgumentException("Suggest query must not be blank.");
+        }
+        int effectiveLimit = (limit == null || limit <= 0)
+                ? DEFAULT_SUGGEST_LIMIT
+                : Math.min(limit, SuggestionTrie.MAX_SUGGESTIONS);
+        Set<String> categoriesToProcess = requestedCategories == null || requestedCategories.isEmpty()
+                ? capabilities.getCategories().keySet()
+                : requestedCategories;
+
+        List<SuggestionTrie> tries = new ArrayList<>();
+        for (String categoryKey : categoriesToProcess) {
+            SuggestionTrie trie = searchIndexService.suggestions(categoryKey);
+            if (trie != null) {
+                tries.add(trie);
+            }
+        }
+        return SuggestionTrie.suggestAcross(tries, rawQuery, effectiveLimit).stream()
+                .map(suggestion -> new SearchSuggestionDto(suggestion.id(), suggestion.type(), suggestion.title(),
+                        suggestion.detailPath()))
+                .toList();
+    }
+
     public SearchCapabilitiesProperties getCapabilities() {
         return capabilities;
     }
 
-    private SearchCategoryResultDto buildMovieResults(String query, List<String> fields, int limit, String matchMode) {
-        List<Movie> movies = movieRepository.findAll();
-        return buildCategoryResult(movies, fields, limit, entity -> {
+    private SearchCategoryResultDto buildMovieResults(CategoryQuery query) {
+        return buildCategoryResult(searchIndexService.movies(), null, query, entity -> {
             Movie movie = entity;
             MovieSearchResultDto dto = new MovieSearchResultDto();
             dto.setId(movie.getId());
@@ -128,13 +247,11 @@ public class SearchAggregationService {
             dto.setCreationYear(movie.getCreationYear());
             dto.setMovieRating(movie.getMovieRating());
             return dto;
-        }, MOVIE_FIELD_EXTRACTORS, query, matchMode);
+        });
     }
 
-    private SearchCategoryResultDto buildCharacterResults(String query, List<String> fields, int limit,
-            String matchMode) {
-        List<Character> characters = characterRepository.findAll();
-        return buildCategoryResult(characters, fields, limit, entity -> {
+    private SearchCategoryResultDto buildCharacterResults(CategoryQuery query) {
+        return buildCategoryResult(searchIndexService.characters(), null, query, entity -> {
             Character character = entity;
             CharacterSearchResultDto dto = new CharacterSearchResultDto();
             dto.setId(character.getId());
@@ -145,12 +262,11 @@ public class SearchAggregationService {
             dto.setFirstAppearance(character.getFirstAppearance());
             dto.setFranchise(character.getFranchise());
             return dto;
-        }, CHARACTER_FIELD_EXTRACTORS, query, matchMode);
+        });
     }
 
-    private SearchCategoryResultDto buildParkResults(String query, List<String> fields, int limit, String matchMode) {
-        List<DisneyParkAttraction> attractions = attractionRepository.findAll();
-        return buildCategoryResult(attractions, fields, limit, entity -> {
+    private SearchCategoryResultDto buildParkResults(CategoryQuery query) {
+        return buildCategoryResult(searchIndexService.parks(), searchIndexService.parkFacets(), query, entity -> {
             DisneyParkAttraction attraction = entity;
             ParkSearchResultDto dto = new ParkSearchResultDto();
             dto.setId(attraction.getId());
@@ -167,60 +283,131 @@ public class SearchAggregationService {
             dto.setParkName(attraction.getPark() != null ? attraction.getPark().getName() : null);
             dto.setAttractionType(attraction.getAttractionType());
             return dto;
-        }, PARK_FIELD_EXTRACTORS, query, matchMode);
+        });
     }
 
-    private <T> SearchCategoryResultDto buildCategoryResult(List<T> entities,
-            List<String> fields,
-            int limit,
-            Function<T, DisneySearchResultDto> dtoFactory,
-            Map<String, Function<T, String>> fieldExtractors,
-            String query,
-            String matchMode) {
+    private <T> SearchCategoryResultDto buildCategoryResult(CategoryIndex<T> index,
+            FacetIndex facetIndex,
+            CategoryQuery query,
+            Function<T, DisneySearchResultDto> dtoFactory) {
         SearchCategoryResultDto categoryResult = new SearchCategoryResultDto();
-        int added = 0;
-        long totalMatches = 0;
+        String lowerQuery = query.text().toLowerCase(Locale.ROOT);
+        String matchMode = query.matchMode();
+        boolean exact = "exact".equals(matchMode);
+        FuzzyQuery fuzzyQuery = "fuzzy".equals(matchMode) ? index.fuzzyQuery(lowerQuery) : null;
+        ToDoubleFunction<String> weights = query.category()::weightOf;
 
-        for (T entity : entities) {
-            MatchComputation computation = evaluateEntity(entity, fields, fieldExtractors, query, matchMode);
-            if (!computation.matched) {
-                continue;
-            }
-            totalMatches++;
-            if (added >= limit) {
-                continue;
-            }
-            DisneySearchResultDto dto = dtoFactory.apply(entity);
-            dto.setHighlights(computation.highlightMap);
+        // Facet filters and counts are bitset operations over the same document ordinals
+        BitSet filter = facetIndex == null ? null : facetIndex.filter(query.filters(), null);
+        BitSet matched = facetIndex != null && query.facets() && query.offset() == 0
+                ? new BitSet(index.size())
+                : null;
+        IntFunction<CategoryIndex.RankedMatches> ranker = fuzzyQuery != null
+                ? limit -> index.rank(query.fields(), fuzzyQuery, weights, limit, filter, matched)
+                : limit -> index.rank(query.fields(), lowerQuery, exact, weights, limit, filter, matched);
+
+        // The first page needs only the top K; later pages slice a cached full ranking
+        CategoryIndex.RankedMatches ranked;
+        int[] page;
+        if (query.offset() == 0) {
+            ranked = ranker.apply(query.limit());
+            page = ranked.documents();
+        } else {
+            SearchResultSetCache.Key key = new SearchResultSetCache.Key(lowerQuery, query.categoryKey(),
+                    query.scopeKey(), matchMode, facetIndex == null ? Map.of() : query.filters());
+            ranked = resultSetCache.get(key, index, () -> ranker.apply(Integer.MAX_VALUE));
+            int[] all = ranked.documents();
+            int from = Math.min(query.offset(), all.length);
+            page = Arrays.copyOfRange(all, from, Math.min(all.length, from + query.limit()));
+        }
+
+        // Totals and ranking come from the index; highlights are rendered only for
+        // the page being returned, and not at all for highlights=none
+        Set<String> fuzzyTerms = fuzzyQuery != null ? fuzzyQuery.allTerms() : null;
+        for (int doc : page) {
+            DisneySearchResultDto dto = dtoFactory.apply(index.document(doc));
+            dto.setHighlights(query.highlights() == HighlightMode.NONE
+                    ? null
+                    : highlightDocument(index, doc, query.fields(), lowerQuery, matchMode, fuzzyTerms,
+                            query.highlights()));
             categoryResult.getResults().add(dto);
-            added++;
         }
-        categoryResult.setTotal(totalMatches);
+        categoryResult.setTotal(ranked.total());
+        if (matched != null) {
+            Map<String, List<FacetCountDto>> facets = new LinkedHashMap<>();
+            facetIndex.counts(matched, query.filters()).forEach((facet, counts) -> facets.put(facet,
+                    counts.stream().map(count -> new FacetCountDto(count.value(), count.count())).toList()));
+            categoryResult.setFacets(facets);
+        }
+
+        int nextOffset = query.offset() + page.length;
+        if (page.length > 0 && nextOffset < ranked.total()) {
+            categoryResult.setNextCursor(new SearchCursor(query.categoryKey(), query.scopeKey(), matchMode,
+                    queryHash(query.text(), query.filters()), nextOffset).encode());
+        }
         return categoryResult;
     }
 
-    private <T> MatchComputation evaluateEntity(T entity,
+    private <T> Map<String, FieldHighlightDto> highlightDocument(CategoryIndex<T> index,
+            int doc,
             List<String> fields,
-            Map<String, Function<T, String>> extractors,
-            String query,
-            String matchMode) {
+            String lowerQuery,
+            String matchMode,
+            Set<String> fuzzyTerms,
+            HighlightMode highlights) {
         Map<String, FieldHighlightDto> highlightMap = new LinkedHashMap<>();
-        boolean matched = false;
         for (String field : fields) {
-            Function<T, String> extractor = extractors.get(field);
-            if (extractor == null) {
+            FieldIndex fieldIndex = index.field(field);
+            if (fieldIndex == null) {
                 continue;
             }
-            String value = extractor.apply(entity);
             boolean snippetField = DESCRIPTION_FIELDS.contains(field);
-            var computation = SearchHighlightingUtils.compute(value, query, snippetField, matchMode);
+            var computation = fuzzyTerms != null
+                    ? SearchHighlightingUtils.computeForTerms(fieldIndex.value(doc), fieldIndex.lowerValue(doc),
+                            fuzzyTerms, snippetField)
+                    : SearchHighlightingUtils.compute(fieldIndex.value(doc), fieldIndex.lowerValue(doc),
+                            lowerQuery, snippetField, matchMode);
             if (computation.isPresent()) {
-                matched = true;
                 SearchHighlightingUtils.HighlightComputation result = computation.get();
                 highlightMap.put(field, new FieldHighlightDto(result.renderedText(), result.ranges()));
+                if (highlights == HighlightMode.FIRST) {
+                    break;
+                }
             }
         }
-        return new MatchComputation(matched, highlightMap);
+        return highlightMap;
+    }
+
+    private static int queryHash(String normalizedQuery, Map<String, List<String>> filters) {
+        return Objects.hash(normalizedQuery.toLowerCase(Locale.ROOT), filters);
+    }
+
+    /**
+     * Facet selections with sorted facet names and sorted, lower-cased, distinct
+     * values, so equivalent requests share cache entries and cursors. Unknown
+     * facet names are rejected here rather than inside a category task.
+     */
+    private Map<String, List<String>> normalizeFilters(Map<String, List<String>> facetFilters) {
+        if (facetFilters == null || facetFilters.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> facetNames = searchIndexService.parkFacets().facetNames();
+        Map<String, List<String>> filters = new TreeMap<>();
+        facetFilters.forEach((facet, values) -> {
+            if (!facetNames.contains(facet)) {
+                throw new IllegalArgumentException("Unknown facet: " + facet + ". Supported: " + facetNames);
+            }
+            List<String> normalized = values.stream()
+                    .filter(StringUtils::hasText)
+                    .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                    .distinct()
+                    .sorted()
+                    .toList();
+            if (!normalized.isEmpty()) {
+                filters.put(facet, normalized);
+            }
+        });
+        return filters;
     }
 
     @SafeVarargs
@@ -236,7 +423,47 @@ public class SearchAggregationService {
         return null;
     }
 
-    private record MatchComputation(boolean matched,
-            Map<String, FieldHighlightDto> highlightMap) {
+    /**
+     * Everything needed to search one category for one request.
+     */
+    private record CategoryQuery(String categoryKey,
+            SearchCapabilitiesProperties.Category category,
+            String scopeKey,
+            List<String> fields,
+            String text,
+            String matchMode,
+            HighlightMode highlights,
+            Map<String, List<String>> filters,
+            boolean facets,
+            int offset,
+            int limit) {
+    }
+
+    /**
+     * Normalized identity of a first-page search request. Query case does not
+     * affect results, categories are order-insensitive, and only the scope
+     * overrides of searched categories matter.
+     */
+    private record SearchCacheKey(String lowerQuery,
+            Set<String> categories,
+            Map<String, String> scopes,
+            int limit,
+            String matchMode,
+            HighlightMode highlights,
+            Map<String, List<String>> filters,
+            boolean facets,
+            long indexGeneration) {
+
+        static SearchCacheKey of(String normalizedQuery, Set<String> categories, Map<String, String> scopeOverrides,
+                int limit, String matchMode, HighlightMode highlights, Map<String, List<String>> filters,
+                boolean facets, long indexGeneration) {
+            Set<String> sortedCategories = new TreeSet<>(categories);
+            Map<String, String> scopes = new TreeMap<>();
+            for (String category : sortedCategories) {
+                scopes.put(category, scopeOverrides.getOrDefault(category, "basic"));
+            }
+            return new SearchCacheKey(normalizedQuery.toLowerCase(Locale.ROOT), sortedCategories, scopes, limit,
+                    matchMode, highlights, filters, facets, indexGeneration);
+        }
     }
 }
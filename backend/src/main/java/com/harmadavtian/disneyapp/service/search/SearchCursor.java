@@ -0,0 +1,44 @@
+package com.harmadavtian.disneyapp.service.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque "load more" token for one category of a search.
+ *
+ * Pins everything that determines the ranked result set (category, resolved
+ * scope, match mode and a hash of the lower-cased query) plus the offset of
+ * the next page, so a follow-up request pages through exactly the same
+ * ranking. Encoded as unpadded URL-safe Base64.
+ */
+public record SearchCursor(String category, String scope, String matchMode, int queryHash, int offset) {
+
+    private static final String VERSION = "v1";
+
+    public String encode() {
+        String raw = String.join("|", VERSION, category, scope, matchMode, Integer.toString(queryHash),
+                Integer.toString(offset));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 6 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid search cursor.");
+            }
+            int offset = Integer.parseInt(parts[5]);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid search cursor.");
+            }
+            return new SearchCursor(parts[1], parts[2], parts[3], Integer.parseInt(parts[4]), offset);
+        } catch (IllegalArgumentException e) {
+            // Also covers Base64 and number format errors
+            throw new IllegalArgumentException("Invalid search cursor.", e);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.harmadavtian.disneyapp.service.search;
 
 import com.harmadavtian.disneyapp.dto.search.HighlightRangeDto;
+import com.harmadavtian.disneyapp.service.search.index.QueryMatcher;
+import com.harmadavtian.disneyapp.service.search.index.SearchTokenizer;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Utility methods for computing highlight ranges and snippets for search
@@ -27,33 +30,63 @@ public final class SearchHighlightingUtils {
         if (normalizedQuery == null || normalizedQuery.isBlank()) {
             return Optional.empty();
         }
+        return compute(value, value.toLowerCase(Locale.ROOT), normalizedQuery.toLowerCase(Locale.ROOT), snippet,
+                matchMode);
+    }
 
-        String lowerValue = value.toLowerCase(Locale.ROOT);
-        String lowerQuery = normalizedQuery.toLowerCase(Locale.ROOT);
+    /**
+     * Variant for callers that already hold the lower-cased value and query
+     * (e.g. values lower-cased once at index time).
+     */
+    public static Optional<HighlightComputation> compute(String value, String lowerValue, String lowerQuery,
+            boolean snippet, String matchMode) {
+        if (value == null || lowerValue == null || lowerQuery == null || lowerQuery.isEmpty()) {
+            return Optional.empty();
+        }
 
         int queryLength = lowerQuery.length();
         List<HighlightRangeDto> rawRanges = new ArrayList<>();
 
-        if ("exact".equalsIgnoreCase(matchMode)) {
-            // Use word boundary matching for exact mode
-            String pattern = "\\b" + java.util.regex.Pattern.quote(lowerQuery) + "\\b";
-            java.util.regex.Pattern regex = java.util.regex.Pattern.compile(pattern);
-            java.util.regex.Matcher matcher = regex.matcher(lowerValue);
-            while (matcher.find() && rawRanges.size() < MAX_RANGES) {
-                rawRanges.add(new HighlightRangeDto(matcher.start(), matcher.end()));
+        boolean exact = "exact".equalsIgnoreCase(matchMode);
+        int index = QueryMatcher.find(lowerValue, lowerQuery, 0, exact);
+        while (index >= 0 && rawRanges.size() < MAX_RANGES) {
+            rawRanges.add(new HighlightRangeDto(index, index + queryLength));
+            index = QueryMatcher.find(lowerValue, lowerQuery, index + queryLength, exact);
+        }
+
+        return render(value, rawRanges, snippet);
+    }
+
+    /**
+     * Fuzzy-mode variant: highlights every whole term of the value that is one
+     * of {@code terms} (the dictionary terms the query expanded to).
+     */
+    public static Optional<HighlightComputation> computeForTerms(String value, String lowerValue, Set<String> terms,
+            boolean snippet) {
+        if (value == null || lowerValue == null || terms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<HighlightRangeDto> rawRanges = new ArrayList<>();
+        int length = lowerValue.length();
+        int position = 0;
+        while (position < length && rawRanges.size() < MAX_RANGES) {
+            while (position < length && !SearchTokenizer.isWordChar(lowerValue.charAt(position))) {
+                position++;
             }
-        } else {
-            // Partial matching (default) - substring anywhere
-            int index = lowerValue.indexOf(lowerQuery);
-            if (index < 0) {
-                return Optional.empty();
+            int start = position;
+            while (position < length && SearchTokenizer.isWordChar(lowerValue.charAt(position))) {
+                position++;
             }
-            while (index >= 0 && rawRanges.size() < MAX_RANGES) {
-                rawRanges.add(new HighlightRangeDto(index, index + queryLength));
-                index = lowerValue.indexOf(lowerQuery, index + queryLength);
+            if (position > start && terms.contains(lowerValue.substring(start, position))) {
+                rawRanges.add(new HighlightRangeDto(start, position));
             }
         }
+        return render(value, rawRanges, snippet);
+    }
 
+    private static Optional<HighlightComputation> render(String value, List<HighlightRangeDto> rawRanges,
+            boolean snippet) {
         if (rawRanges.isEmpty()) {
             return Optional.empty();
         }
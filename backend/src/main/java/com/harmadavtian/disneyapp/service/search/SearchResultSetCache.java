@@ -0,0 +1,59 @@
+package com.harmadavtian.disneyapp.service.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.harmadavtian.disneyapp.service.search.index.CategoryIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of fully ranked result sets backing cursor pagination.
+ *
+ * The first page of a search is answered with a bounded top-K ranking; the
+ * first follow-up page ranks every match once and caches the ordering here,
+ * so later pages are a slice of a cached array. Entries remember the
+ * {@link CategoryIndex} they were ranked against and are recomputed once the
+ * index has been rebuilt (e.g. after a reseed).
+ */
+@Component
+public class SearchResultSetCache {
+
+    private final Cache<Key, Entry> cache;
+
+    public SearchResultSetCache(@Value("${search.result-set.ttl-seconds:120}") long ttlSeconds,
+            @Value("${search.result-set.max-entries:1000}") long maxEntries) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    /**
+     * @param index  Index the ranking must come from
+     * @param ranker Full ranking of the query against {@code index}
+     */
+    public CategoryIndex.RankedMatches get(Key key, CategoryIndex<?> index,
+            Supplier<CategoryIndex.RankedMatches> ranker) {
+        Entry entry = cache.get(key, ignored -> new Entry(index, ranker.get()));
+        if (entry.index() != index) {
+            entry = new Entry(index, ranker.get());
+            cache.put(key, entry);
+        }
+        return entry.ranked();
+    }
+
+    /**
+     * Everything that determines a category's ranking.
+     */
+    public record Key(String lowerQuery, String category, String scope, String matchMode,
+            Map<String, List<String>> filters) {
+    }
+
+    private record Entry(CategoryIndex<?> index, CategoryIndex.RankedMatches ranked) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Immutable index snapshot for one search category (movies, characters or
+ * parks): the documents in repository order, one {@link FieldIndex} per
+ * searchable field, and a {@link LevenshteinTrie} over the combined term dictionary
+ * for fuzzy lookups.
+ *
+ * @param <T> Entity type of the category
+ */
+public final class CategoryIndex<T> {
+
+    private final List<T> documents;
+    private final Map<String, FieldIndex> fields;
+    private final LevenshteinTrie vocabulary;
+
+    private CategoryIndex(List<T> documents, Map<String, FieldIndex> fields, LevenshteinTrie vocabulary) {
+        this.documents = documents;
+        this.fields = fields;
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * Build an index over {@code documents} for the given fields. Fields without
+     * an extractor are ignored.
+     */
+    public static <T> CategoryIndex<T> build(List<T> documents,
+            Collection<String> fieldNames,
+            Map<String, Function<T, String>> extractors) {
+        List<T> snapshot = List.copyOf(documents);
+        Map<String, FieldIndex> fields = new LinkedHashMap<>();
+        for (String fieldName : fieldNames) {
+            Function<T, String> extractor = extractors.get(fieldName);
+            if (extractor == null || fields.containsKey(fieldName)) {
+                continue;
+            }
+            String[] values = new String[snapshot.size()];
+            for (int doc = 0; doc < values.length; doc++) {
+                values[doc] = extractor.apply(snapshot.get(doc));
+            }
+            fields.put(fieldName, FieldIndex.build(values));
+        }
+        Set<String> terms = new HashSet<>();
+        fields.values().forEach(field -> terms.addAll(field.terms()));
+        return new CategoryIndex<>(snapshot, Collections.unmodifiableMap(fields), LevenshteinTrie.build(terms));
+    }
+
+    /**
+     * Documents in index order, for building companion structures such as a
+     * {@link FacetIndex} over the same ordinals.
+     */
+    public List<T> documents() {
+        return documents;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public T document(int doc) {
+        return documents.get(doc);
+    }
+
+    /**
+     * @return The field index, or {@code null} if the field is not indexed
+     */
+    public FieldIndex field(String fieldName) {
+        return fields.get(fieldName);
+    }
+
+    public Map<String, FieldIndex> fields() {
+        return fields;
+    }
+
+    /**
+     * Candidate documents for {@code lowerQuery} across the given fields, in
+     * ascending (repository) order.
+     */
+    public int[] candidates(List<String> fieldNames, String lowerQuery, boolean exact) {
+        List<int[]> perField = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            FieldIndex field = fields.get(fieldName);
+            if (field != null) {
+                perField.add(field.candidates(lowerQuery, exact));
+            }
+        }
+        return PostingLists.union(perField, documents.size());
+    }
+
+    /**
+     * Expand each term of {@code lowerQuery} to the dictionary terms (across all
+     * fields of the category) within its edit budget.
+     */
+    public FuzzyQuery fuzzyQuery(String lowerQuery) {
+        List<Set<String>> variants = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(SearchTokenizer.tokenize(lowerQuery))) {
+            variants.add(new HashSet<>(vocabulary.search(term, FuzzyQuery.maxEdits(term))));
+        }
+        return new FuzzyQuery(variants);
+    }
+
+    /**
+     * Score all matches for {@code lowerQuery} across the given fields and keep
+     * the best {@code limit}.
+     *
+     * @param weights Relevance weight per field name
+     * @return Total number of matching documents and the top documents, best
+     *         first
+     */
+    public RankedMatches rank(List<String> fieldNames, String lowerQuery, boolean exact,
+            ToDoubleFunction<String> weights, int limit) {
+        return rank(fieldNames, lowerQuery, exact, weights, limit, null, null);
+    }
+
+    /**
+     * Filtered variant of {@link #rank(List, String, boolean, ToDoubleFunction, int)}
+     * for faceted search.
+     *
+     * @param filter  Documents allowed in the result (e.g. from a
+     *                {@link FacetIndex}), or {@code null} for all; {@code total}
+     *                counts only allowed documents
+     * @param matched If not {@code null}, receives every document matching the
+     *                query, before {@code filter}
+     */
+    public RankedMatches rank(List<String> fieldNames, String lowerQuery, boolean exact,
+            ToDoubleFunction<String> weights, int limit, BitSet filter, BitSet matched) {
+        return rank(fieldNames, field -> field.matches(lowerQuery, exact), weights, limit, filter, matched);
+    }
+
+    /**
+     * Fuzzy variant of {@link #rank(List, String, boolean, ToDoubleFunction, int)}.
+     */
+    public RankedMatches rank(List<String> fieldNames, FuzzyQuery query, ToDoubleFunction<String> weights,
+            int limit) {
+        return rank(fieldNames, query, weights, limit, null, null);
+    }
+
+    /**
+     * Fuzzy variant of
+     * {@link #rank(List, String, boolean, ToDoubleFunction, int, BitSet, BitSet)}.
+     */
+    public RankedMatches rank(List<String> fieldNames, FuzzyQuery query, ToDoubleFunction<String> weights,
+            int limit, BitSet filter, BitSet matched) {
+        return rank(fieldNames, field -> field.matches(query), weights, limit, filter, matched);
+    }
+
+    private RankedMatches rank(List<String> fieldNames, Function<FieldIndex, FieldIndex.Matches> matcher,
+            ToDoubleFunction<String> weights, int limit, BitSet filter, BitSet matched) {
+        List<FieldIndex> fieldIndexes = new ArrayList<>();
+        List<FieldIndex.Matches> fieldMatches = new ArrayList<>();
+        List<Double> fieldWeights = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            FieldIndex field = fields.get(fieldName);
+            if (field == null) {
+                continue;
+            }
+            fieldIndexes.add(field);
+            fieldMatches.add(matcher.apply(field));
+            fieldWeights.add(weights.applyAsDouble(fieldName));
+        }
+        double[] weightArray = fieldWeights.stream().mapToDouble(Double::doubleValue).toArray();
+        return RelevanceRanker.rank(fieldIndexes, fieldMatches, weightArray, documents.size(), limit, filter,
+                matched);
+    }
+
+    /**
+     * @param total     Number of documents matching in any field
+     * @param documents Top document ordinals, best first
+     */
+    public record RankedMatches(long total, int[] documents) {
+    }
+}
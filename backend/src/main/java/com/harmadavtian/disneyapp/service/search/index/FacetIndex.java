@@ -0,0 +1,140 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Precomputed document bitsets per facet value (e.g. {@code thrill_level =
+ * High}) for one category.
+ *
+ * Filters are an OR of the selected values within a facet and an AND across
+ * facets, and facet counts are the cardinality of {@code matches ∧ value};
+ * both are plain {@link BitSet} operations over document ordinals shared with
+ * the category's {@link CategoryIndex}. Values are matched case-insensitively
+ * and reported with the casing of their first occurrence.
+ */
+public final class FacetIndex {
+
+    private final Map<String, Map<String, FacetValue>> facets;
+
+    private FacetIndex(Map<String, Map<String, FacetValue>> facets) {
+        this.facets = facets;
+    }
+
+    /**
+     * @param documents  Documents in the same order as the category index
+     * @param extractors Facet value per document, by facet name; null or blank
+     *                   values are not counted
+     */
+    public static <T> FacetIndex build(List<T> documents, Map<String, Function<T, String>> extractors) {
+        Map<String, Map<String, FacetValue>> facets = new LinkedHashMap<>();
+        extractors.forEach((facet, extractor) -> {
+            Map<String, FacetValue> values = new LinkedHashMap<>();
+            for (int doc = 0; doc < documents.size(); doc++) {
+                String value = extractor.apply(documents.get(doc));
+                if (value == null || value.isBlank()) {
+                    continue;
+                }
+                values.computeIfAbsent(normalize(value), key -> new FacetValue(value.trim(), new BitSet()))
+                        .documents().set(doc);
+            }
+            facets.put(facet, Collections.unmodifiableMap(values));
+        });
+        return new FacetIndex(Collections.unmodifiableMap(facets));
+    }
+
+    public Set<String> facetNames() {
+        return facets.keySet();
+    }
+
+    /**
+     * Documents passing every selection except the one on {@code exceptFacet}
+     * (pass {@code null} to apply all of them).
+     *
+     * @param selections Selected values per facet name
+     * @return The filter, or {@code null} when nothing is selected
+     * @throws IllegalArgumentException for an unknown facet name
+     */
+    public BitSet filter(Map<String, ? extends Collection<String>> selections, String exceptFacet) {
+        BitSet result = null;
+        for (Map.Entry<String, ? extends Collection<String>> selection : selections.entrySet()) {
+            Map<String, FacetValue> values = facets.get(selection.getKey());
+            if (values == null) {
+                throw new IllegalArgumentException("Unknown facet: " + selection.getKey());
+            }
+            if (selection.getKey().equals(exceptFacet) || selection.getValue().isEmpty()) {
+                continue;
+            }
+            BitSet any = new BitSet();
+            for (String value : selection.getValue()) {
+                FacetValue facetValue = values.get(normalize(value));
+                if (facetValue != null) {
+                    any.or(facetValue.documents());
+                }
+            }
+            if (result == null) {
+                result = any;
+            } else {
+                result.and(any);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Value counts per facet over {@code matches}.
+     *
+     * Counts for a facet ignore that facet's own selection, so a client can
+     * still see (and switch to) the other values of a facet it filters on.
+     * Values with no matches are omitted; order is by count, then value.
+     *
+     * @param matches    Documents matching the query, before facet filters
+     * @param selections Selected values per facet name
+     */
+    public Map<String, List<Count>> counts(BitSet matches, Map<String, ? extends Collection<String>> selections) {
+        Map<String, List<Count>> result = new LinkedHashMap<>();
+        BitSet scratch = new BitSet();
+        facets.forEach((facet, values) -> {
+            BitSet base = (BitSet) matches.clone();
+            BitSet others = filter(selections, facet);
+            if (others != null) {
+                base.and(others);
+            }
+            List<Count> counts = new ArrayList<>();
+            for (FacetValue value : values.values()) {
+                scratch.clear();
+                scratch.or(base);
+                scratch.and(value.documents());
+                int count = scratch.cardinality();
+                if (count > 0) {
+                    counts.add(new Count(value.label(), count));
+                }
+            }
+            counts.sort(Comparator.comparingLong(Count::count).reversed().thenComparing(Count::value));
+            result.put(facet, counts);
+        });
+        return result;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record FacetValue(String label, BitSet documents) {
+    }
+
+    /**
+     * One facet value and its number of matching documents.
+     */
+    public record Count(String value, long count) {
+    }
+}
@@ -0,0 +1,271 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index for a single searchable field of a category.
+ *
+ * Holds the term dictionary (term → posting list of document ordinals), a
+ * character n-gram index for substring queries, and the raw and lower-cased
+ * field values, so matches can be verified and highlighted without going back
+ * to the database or re-lowercasing per request. Instances are immutable once
+ * built.
+ */
+public final class FieldIndex {
+
+    private final String[] values;
+    private final String[] lowerValues;
+    private final Map<String, int[]> postings;
+    private final Map<String, int[]> frequencies;
+    private final NGramIndex grams;
+    private final int[] populated;
+    private final int[] lengths;
+    private final double averageLength;
+
+    private FieldIndex(String[] values, String[] lowerValues, Map<String, int[]> postings,
+            Map<String, int[]> frequencies, NGramIndex grams, int[] populated, int[] lengths) {
+        this.values = values;
+        this.lowerValues = lowerValues;
+        this.postings = postings;
+        this.frequencies = frequencies;
+        this.grams = grams;
+        this.populated = populated;
+        this.lengths = lengths;
+        long totalLength = 0;
+        for (int length : lengths) {
+            totalLength += length;
+        }
+        this.averageLength = populated.length == 0 ? 0 : (double) totalLength / populated.length;
+    }
+
+    /**
+     * Build the index for one field.
+     *
+     * @param values Raw field values indexed by document ordinal (may contain
+     *               nulls)
+     */
+    public static FieldIndex build(String[] values) {
+        String[] lowerValues = new String[values.length];
+        int[] lengths = new int[values.length];
+        Map<String, PostingLists.Builder> building = new HashMap<>();
+        PostingLists.Builder nonBlank = new PostingLists.Builder();
+        for (int doc = 0; doc < values.length; doc++) {
+            String value = values[doc];
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            nonBlank.add(doc);
+            lowerValues[doc] = value.toLowerCase(Locale.ROOT);
+            List<String> terms = SearchTokenizer.tokenize(lowerValues[doc]);
+            lengths[doc] = terms.size();
+            for (String term : terms) {
+                building.computeIfAbsent(term, key -> new PostingLists.Builder()).add(doc);
+            }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(building.size() * 2);
+        Map<String, int[]> frequencies = new HashMap<>(building.size() * 2);
+        building.forEach((term, docs) -> {
+            postings.put(term, docs.toArray());
+            frequencies.put(term, docs.frequencies());
+        });
+        return new FieldIndex(values, lowerValues, postings, frequencies, NGramIndex.build(lowerValues),
+                nonBlank.toArray(), lengths);
+    }
+
+    public String value(int doc) {
+        return values[doc];
+    }
+
+    public String lowerValue(int doc) {
+        return lowerValues[doc];
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * The field's term dictionary.
+     */
+    public Set<String> terms() {
+        return postings.keySet();
+    }
+
+    /**
+     * Length of the field in terms, for length normalisation when scoring.
+     */
+    public int length(int doc) {
+        return lengths[doc];
+    }
+
+    public double averageLength() {
+        return averageLength;
+    }
+
+    /**
+     * Verified matches of {@code lowerQuery} with their occurrence counts.
+     *
+     * A whole-word query made of a single term is answered straight from the
+     * postings and stored term frequencies. Anything else (substrings, phrases)
+     * counts occurrences in the candidate values; no highlight or snippet work
+     * is done here.
+     */
+    public Matches matches(String lowerQuery, boolean exact) {
+        if (exact && isSingleTerm(lowerQuery)) {
+            int[] docs = postings.get(lowerQuery);
+            return docs == null ? Matches.NONE : new Matches(docs, frequencies.get(lowerQuery));
+        }
+
+        int[] candidates = candidates(lowerQuery, exact);
+        int[] docs = new int[candidates.length];
+        int[] counts = new int[candidates.length];
+        int size = 0;
+        for (int doc : candidates) {
+            int count = QueryMatcher.count(lowerValues[doc], lowerQuery, exact);
+            if (count > 0) {
+                docs[size] = doc;
+                counts[size] = count;
+                size++;
+            }
+        }
+        return new Matches(Arrays.copyOf(docs, size), Arrays.copyOf(counts, size));
+    }
+
+    /**
+     * Documents that may match {@code lowerQuery}. The result is a superset of
+     * the true matches and must be verified against {@link #lowerValue(int)}.
+     *
+     * @param exact Whole-word mode: answered from the term dictionary, since
+     *              every term of a whole-word match is a complete indexed
+     *              term. Otherwise substring mode via the n-gram index.
+     */
+    public int[] candidates(String lowerQuery, boolean exact) {
+        int[] candidates = exact ? termCandidates(lowerQuery) : grams.candidates(lowerQuery);
+        return candidates == null ? populated : candidates;
+    }
+
+    /**
+     * Fuzzy matches: documents containing, for every query term, at least one
+     * of its variants. Counts are the summed occurrences of matched variants.
+     * Answered from postings alone, without reading field values.
+     */
+    public Matches matches(FuzzyQuery query) {
+        if (query.variants().isEmpty()) {
+            return Matches.NONE;
+        }
+        Matches result = null;
+        for (Set<String> variants : query.variants()) {
+            Matches termMatches = unionOf(variants);
+            result = result == null ? termMatches : intersectOf(result, termMatches);
+            if (result.docs().length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private Matches unionOf(Set<String> terms) {
+        // Pack (doc, count) pairs into longs so a single sort groups them by document
+        int total = 0;
+        for (String term : terms) {
+            int[] docs = postings.get(term);
+            total += docs == null ? 0 : docs.length;
+        }
+        long[] pairs = new long[total];
+        int size = 0;
+        for (String term : terms) {
+            int[] docs = postings.get(term);
+            if (docs == null) {
+                continue;
+            }
+            int[] counts = frequencies.get(term);
+            for (int i = 0; i < docs.length; i++) {
+                pairs[size++] = ((long) docs[i] << 32) | counts[i];
+            }
+        }
+        Arrays.sort(pairs);
+
+        int[] docs = new int[size];
+        int[] counts = new int[size];
+        int unique = 0;
+        for (long pair : pairs) {
+            int doc = (int) (pair >>> 32);
+            int count = (int) pair;
+            if (unique > 0 && docs[unique - 1] == doc) {
+                counts[unique - 1] += count;
+            } else {
+                docs[unique] = doc;
+                counts[unique] = count;
+                unique++;
+            }
+        }
+        return new Matches(Arrays.copyOf(docs, unique), Arrays.copyOf(counts, unique));
+    }
+
+    private static Matches intersectOf(Matches left, Matches right) {
+        int[] docs = new int[Math.min(left.docs().length, right.docs().length)];
+        int[] counts = new int[docs.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.docs().length && j < right.docs().length) {
+            int leftDoc = left.docs()[i];
+            int rightDoc = right.docs()[j];
+            if (leftDoc == rightDoc) {
+                docs[size] = leftDoc;
+                counts[size] = left.counts()[i] + right.counts()[j];
+                size++;
+                i++;
+                j++;
+            } else if (leftDoc < rightDoc) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return new Matches(Arrays.copyOf(docs, size), Arrays.copyOf(counts, size));
+    }
+
+    private static boolean isSingleTerm(String lowerQuery) {
+        for (int i = 0; i < lowerQuery.length(); i++) {
+            if (!SearchTokenizer.isWordChar(lowerQuery.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] termCandidates(String lowerQuery) {
+        Set<String> queryTerms = new LinkedHashSet<>(SearchTokenizer.tokenize(lowerQuery));
+        if (queryTerms.isEmpty()) {
+            return null;
+        }
+        int[] result = null;
+        for (String term : queryTerms) {
+            int[] docs = postings.get(term);
+            if (docs == null) {
+                return PostingLists.EMPTY;
+            }
+            result = result == null ? docs : PostingLists.intersect(result, docs);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Matching documents (ascending) and per-document occurrence counts.
+     */
+    public record Matches(int[] docs, int[] counts) {
+
+        static final Matches NONE = new Matches(PostingLists.EMPTY, PostingLists.EMPTY);
+    }
+}
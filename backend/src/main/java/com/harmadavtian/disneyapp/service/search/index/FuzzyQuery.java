@@ -0,0 +1,35 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A query expanded against a category's term dictionary for fuzzy matching.
+ *
+ * @param variants For each query term (in order), the dictionary terms within
+ *                 its edit budget; a document matches a field when every
+ *                 query term has at least one variant in that field
+ */
+public record FuzzyQuery(List<Set<String>> variants) {
+
+    /**
+     * Union of all variants, used to highlight matched terms.
+     */
+    public Set<String> allTerms() {
+        Set<String> terms = new HashSet<>();
+        variants.forEach(terms::addAll);
+        return terms;
+    }
+
+    /**
+     * Edit budget by term length, following the usual "auto" fuzziness: exact
+     * for 1-2 characters, one edit for 3-5, two edits beyond that.
+     */
+    static int maxEdits(String term) {
+        if (term.length() <= 2) {
+            return 0;
+        }
+        return term.length() <= 5 ? 1 : 2;
+    }
+}
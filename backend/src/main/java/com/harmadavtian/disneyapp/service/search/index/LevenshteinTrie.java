@@ -0,0 +1,109 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Character trie over a term dictionary, searched with a Levenshtein
+ * automaton for typo-tolerant lookups.
+ *
+ * The search walks the trie carrying one row of the edit-distance matrix per
+ * node (the automaton state for the prefix spelled so far). A branch is
+ * abandoned as soon as every entry in its row exceeds the edit budget, so
+ * only prefixes that can still lead to a match are visited and no term is
+ * compared against the query from scratch.
+ */
+final class LevenshteinTrie {
+
+    private final Node root;
+
+    private LevenshteinTrie(Node root) {
+        this.root = root;
+    }
+
+    static LevenshteinTrie build(Collection<String> terms) {
+        Node root = new Node();
+        for (String term : terms) {
+            Node node = root;
+            for (int i = 0; i < term.length(); i++) {
+                node = node.childOrCreate(term.charAt(i));
+            }
+            node.term = term;
+        }
+        return new LevenshteinTrie(root);
+    }
+
+    /**
+     * All dictionary terms within {@code maxEdits} insertions, deletions or
+     * substitutions of {@code query}.
+     */
+    List<String> search(String query, int maxEdits) {
+        List<String> matches = new ArrayList<>();
+        int[] firstRow = new int[query.length() + 1];
+        for (int j = 0; j < firstRow.length; j++) {
+            firstRow[j] = j;
+        }
+        if (root.term != null && firstRow[query.length()] <= maxEdits) {
+            matches.add(root.term);
+        }
+        for (int i = 0; i < root.labels.length; i++) {
+            search(root.children[i], root.labels[i], query, firstRow, maxEdits, matches);
+        }
+        return matches;
+    }
+
+    private static void search(Node node, char label, String query, int[] previousRow, int maxEdits,
+            List<String> matches) {
+        int columns = query.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+        int rowMinimum = row[0];
+        for (int j = 1; j < columns; j++) {
+            int substitution = previousRow[j - 1] + (query.charAt(j - 1) == label ? 0 : 1);
+            row[j] = Math.min(substitution, Math.min(previousRow[j], row[j - 1]) + 1);
+            rowMinimum = Math.min(rowMinimum, row[j]);
+        }
+
+        if (node.term != null && row[columns - 1] <= maxEdits) {
+            matches.add(node.term);
+        }
+        if (rowMinimum > maxEdits) {
+            return;
+        }
+        for (int i = 0; i < node.labels.length; i++) {
+            search(node.children[i], node.labels[i], query, row, maxEdits, matches);
+        }
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private String term;
+
+        Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node child = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = child;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+    }
+}
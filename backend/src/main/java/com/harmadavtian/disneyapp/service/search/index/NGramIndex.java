@@ -0,0 +1,97 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Character n-gram index over the lower-cased values of one field, used to
+ * answer substring ("partial") queries.
+ *
+ * Every trigram of a value (spaces and punctuation included) maps to the
+ * documents containing it. A document can only contain a query of three or
+ * more characters if it contains every trigram of that query, so candidates
+ * are the intersection of the query's trigram postings. Bigrams are kept as
+ * well because the minimum query length is two characters.
+ */
+final class NGramIndex {
+
+    private static final int TRIGRAM = 3;
+    private static final int BIGRAM = 2;
+
+    private final Map<Long, int[]> trigrams;
+    private final Map<Long, int[]> bigrams;
+
+    private NGramIndex(Map<Long, int[]> trigrams, Map<Long, int[]> bigrams) {
+        this.trigrams = trigrams;
+        this.bigrams = bigrams;
+    }
+
+    static NGramIndex build(String[] lowerValues) {
+        Map<Long, PostingLists.Builder> trigramBuilders = new HashMap<>();
+        Map<Long, PostingLists.Builder> bigramBuilders = new HashMap<>();
+        for (int doc = 0; doc < lowerValues.length; doc++) {
+            String value = lowerValues[doc];
+            if (value == null) {
+                continue;
+            }
+            addGrams(trigramBuilders, value, TRIGRAM, doc);
+            addGrams(bigramBuilders, value, BIGRAM, doc);
+        }
+        return new NGramIndex(freeze(trigramBuilders), freeze(bigramBuilders));
+    }
+
+    /**
+     * Candidate documents for a lower-cased substring query, or {@code null} if
+     * the query is too short to be answered from the index.
+     */
+    int[] candidates(String lowerQuery) {
+        if (lowerQuery.length() < BIGRAM) {
+            return null;
+        }
+        if (lowerQuery.length() == BIGRAM) {
+            return bigrams.getOrDefault(key(lowerQuery, 0, BIGRAM), PostingLists.EMPTY);
+        }
+
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + TRIGRAM <= lowerQuery.length(); i++) {
+            int[] postings = trigrams.get(key(lowerQuery, i, TRIGRAM));
+            if (postings == null) {
+                return PostingLists.EMPTY;
+            }
+            lists.add(postings);
+        }
+        // Rarest grams first so the running intersection shrinks quickly
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = PostingLists.intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static void addGrams(Map<Long, PostingLists.Builder> builders, String value, int length, int doc) {
+        for (int i = 0; i + length <= value.length(); i++) {
+            builders.computeIfAbsent(key(value, i, length), gram -> new PostingLists.Builder()).add(doc);
+        }
+    }
+
+    private static Map<Long, int[]> freeze(Map<Long, PostingLists.Builder> builders) {
+        Map<Long, int[]> frozen = new HashMap<>(builders.size() * 2);
+        builders.forEach((gram, builder) -> frozen.put(gram, builder.toArray()));
+        return frozen;
+    }
+
+    /**
+     * Pack up to three UTF-16 code units into a single long key.
+     */
+    private static long key(String value, int offset, int length) {
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            key = (key << 16) | value.charAt(offset + i);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,99 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Operations on posting lists: ascending, duplicate-free arrays of document
+ * ordinals.
+ */
+public final class PostingLists {
+
+    public static final int[] EMPTY = new int[0];
+
+    private PostingLists() {
+    }
+
+    /**
+     * Intersect two posting lists with a linear merge.
+     */
+    public static int[] intersect(int[] left, int[] right) {
+        if (left.length == 0 || right.length == 0) {
+            return EMPTY;
+        }
+        int[] result = new int[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                result[size++] = left[i];
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Union any number of posting lists over a corpus of {@code documentCount}
+     * documents.
+     */
+    public static int[] union(Collection<int[]> lists, int documentCount) {
+        if (lists.isEmpty()) {
+            return EMPTY;
+        }
+        if (lists.size() == 1) {
+            return lists.iterator().next();
+        }
+        BitSet bits = new BitSet(documentCount);
+        for (int[] list : lists) {
+            for (int doc : list) {
+                bits.set(doc);
+            }
+        }
+        return bits.stream().toArray();
+    }
+
+    /**
+     * Accumulates a posting list from documents visited in ascending order.
+     * Repeated additions of the same document increment its frequency instead
+     * of adding it twice.
+     */
+    public static final class Builder {
+
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        public void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                frequencies[size - 1]++;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = 1;
+            size++;
+        }
+
+        public int[] toArray() {
+            return Arrays.copyOf(docs, size);
+        }
+
+        /**
+         * Per-document occurrence counts, parallel to {@link #toArray()}.
+         */
+        public int[] frequencies() {
+            return Arrays.copyOf(frequencies, size);
+        }
+    }
+}
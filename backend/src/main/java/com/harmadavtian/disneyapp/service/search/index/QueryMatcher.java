@@ -0,0 +1,56 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+/**
+ * Locates occurrences of a lower-cased query inside a lower-cased value, in
+ * either substring (partial) or whole-word (exact) mode.
+ *
+ * Exact mode has the semantics of the regex {@code \bquery\b} without
+ * compiling a pattern: an {@code indexOf} hit only counts when both of its
+ * ends sit on a word boundary.
+ */
+public final class QueryMatcher {
+
+    private QueryMatcher() {
+    }
+
+    /**
+     * @return Start of the first match at or after {@code from}, or -1
+     */
+    public static int find(String lowerValue, String lowerQuery, int from, boolean exact) {
+        int index = lowerValue.indexOf(lowerQuery, from);
+        if (!exact) {
+            return index;
+        }
+        while (index >= 0) {
+            if (isWordBoundary(lowerValue, index) && isWordBoundary(lowerValue, index + lowerQuery.length())) {
+                return index;
+            }
+            index = lowerValue.indexOf(lowerQuery, index + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Number of non-overlapping matches, as a regex {@code find()} loop would
+     * report them.
+     */
+    public static int count(String lowerValue, String lowerQuery, boolean exact) {
+        int count = 0;
+        int index = find(lowerValue, lowerQuery, 0, exact);
+        while (index >= 0) {
+            count++;
+            index = find(lowerValue, lowerQuery, index + lowerQuery.length(), exact);
+        }
+        return count;
+    }
+
+    /**
+     * Regex-style word boundary: exactly one side of {@code position} is a word
+     * character.
+     */
+    private static boolean isWordBoundary(String text, int position) {
+        boolean before = position > 0 && SearchTokenizer.isWordChar(text.charAt(position - 1));
+        boolean after = position < text.length() && SearchTokenizer.isWordChar(text.charAt(position));
+        return before != after;
+    }
+}
@@ -0,0 +1,98 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * BM25-style scoring of field matches and bounded top-K selection.
+ *
+ * Each field contributes {@code weight × idf × saturated tf}, treating the
+ * whole query as a single term: tf is the number of non-overlapping matches
+ * in the field, df is the number of documents whose field matches, and the
+ * field length (in terms) normalises long descriptions against short titles.
+ * Per-field match lists are merged in document order, so the full result set
+ * is never materialised; only the best K documents are kept in a min-heap.
+ */
+final class RelevanceRanker {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private RelevanceRanker() {
+    }
+
+    /**
+     * @param filter  Documents allowed in the result, or {@code null} for all
+     * @param matched If not {@code null}, receives every matching document
+     *                before {@code filter} is applied (for facet counts)
+     */
+    static CategoryIndex.RankedMatches rank(List<FieldIndex> fieldIndexes, List<FieldIndex.Matches> fieldMatches,
+            double[] weights, int documentCount, int limit, BitSet filter, BitSet matched) {
+        int fieldCount = fieldMatches.size();
+        double[] idf = new double[fieldCount];
+        for (int f = 0; f < fieldCount; f++) {
+            int df = fieldMatches.get(f).docs().length;
+            idf[f] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        }
+
+        // Min-heap on score; on ties the later document is evicted first
+        PriorityQueue<ScoredDoc> heap = new PriorityQueue<>(Math.max(1, Math.min(limit, documentCount)),
+                (left, right) -> left.score != right.score
+                        ? Double.compare(left.score, right.score)
+                        : Integer.compare(right.doc, left.doc));
+        int[] cursors = new int[fieldCount];
+        long total = 0;
+
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int f = 0; f < fieldCount; f++) {
+                int[] docs = fieldMatches.get(f).docs();
+                if (cursors[f] < docs.length && docs[cursors[f]] < doc) {
+                    doc = docs[cursors[f]];
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            double score = 0;
+            for (int f = 0; f < fieldCount; f++) {
+                FieldIndex.Matches matches = fieldMatches.get(f);
+                if (cursors[f] < matches.docs().length && matches.docs()[cursors[f]] == doc) {
+                    FieldIndex field = fieldIndexes.get(f);
+                    int tf = matches.counts()[cursors[f]];
+                    double norm = K1 * (1 - B + B * field.length(doc) / Math.max(1.0, field.averageLength()));
+                    score += weights[f] * idf[f] * (tf * (K1 + 1)) / (tf + norm);
+                    cursors[f]++;
+                }
+            }
+            if (matched != null) {
+                matched.set(doc);
+            }
+            if (filter != null && !filter.get(doc)) {
+                continue;
+            }
+            total++;
+
+            if (limit <= 0) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(new ScoredDoc(doc, score));
+            } else if (score > heap.peek().score) {
+                heap.poll();
+                heap.add(new ScoredDoc(doc, score));
+            }
+        }
+
+        int[] top = new int[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = heap.poll().doc;
+        }
+        return new CategoryIndex.RankedMatches(total, top);
+    }
+
+    private record ScoredDoc(int doc, double score) {
+    }
+}
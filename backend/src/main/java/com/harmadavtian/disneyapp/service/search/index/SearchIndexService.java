@@ -0,0 +1,232 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import com.harmadavtian.disneyapp.config.SearchCapabilitiesProperties;
+import com.harmadavtian.disneyapp.model.Character;
+import com.harmadavtian.disneyapp.model.DisneyParkAttraction;
+import com.harmadavtian.disneyapp.model.Movie;
+import com.harmadavtian.disneyapp.repository.CharacterRepository;
+import com.harmadavtian.disneyapp.repository.DisneyParkAttractionRepository;
+import com.harmadavtian.disneyapp.repository.MovieRepository;
+import com.harmadavtian.disneyapp.service.CatalogReseededEvent;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Owns the in-memory search index used by
+ * {@link com.harmadavtian.disneyapp.service.search.SearchAggregationService}.
+ *
+ * The index covers every field named in search-capabilities.yml for each
+ * category, plus a {@link SuggestionTrie} of display names per category for
+ * autocomplete. It is built once the application is ready (after
+ * {@link com.harmadavtian.disneyapp.service.DataSeeder} has run) and rebuilt
+ * after every committed reseed, so the search path never queries the
+ * database.
+ *
+ * Readers always see a complete snapshot: a rebuild constructs new indexes and
+ * swaps them in with a single volatile write.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private static final Map<String, Function<Movie, String>> MOVIE_FIELD_EXTRACTORS = Map.ofEntries(
+            Map.entry("title", Movie::getTitle),
+            Map.entry("short_description", Movie::getShortDescription),
+            Map.entry("long_description", Movie::getLongDescription),
+            Map.entry("creation_year",
+                    movie -> movie.getCreationYear() == null ? null : movie.getCreationYear().toString()),
+            Map.entry("hidden_tags", Movie::getHiddenTags),
+            Map.entry("movie_rating", Movie::getMovieRating));
+
+    private static final Map<String, Function<Character, String>> CHARACTER_FIELD_EXTRACTORS = Map.ofEntries(
+            Map.entry("name", Character::getName),
+            Map.entry("short_description", Character::getShortDescription),
+            Map.entry("long_description", Character::getLongDescription),
+            Map.entry("first_appearance", Character::getFirstAppearance),
+            Map.entry("franchise", Character::getFranchise),
+            Map.entry("character_type", Character::getCharacterType));
+
+    private static final Map<String, Function<DisneyParkAttraction, String>> PARK_FIELD_EXTRACTORS = Map.ofEntries(
+            Map.entry("name", DisneyParkAttraction::getName),
+            Map.entry("short_description", DisneyParkAttraction::getShortDescription),
+            Map.entry("theme", DisneyParkAttraction::getTheme),
+            Map.entry("land_area", DisneyParkAttraction::getLandArea),
+            Map.entry("attraction_type", DisneyParkAttraction::getAttractionType),
+            Map.entry("thrill_level", DisneyParkAttraction::getThrillLevel));
+
+    private static final Map<String, Function<DisneyParkAttraction, String>> PARK_FACET_EXTRACTORS = Map.of(
+            "park", DisneyParkAttraction::getParkUrlId,
+            "land_area", DisneyParkAttraction::getLandArea,
+            "attraction_type", DisneyParkAttraction::getAttractionType,
+            "thrill_level", DisneyParkAttraction::getThrillLevel,
+            "is_operational",
+            attraction -> attraction.getIsOperational() == null ? null : attraction.getIsOperational().toString());
+
+    private final MovieRepository movieRepository;
+    private final CharacterRepository characterRepository;
+    private final DisneyParkAttractionRepository attractionRepository;
+    private final SearchCapabilitiesProperties capabilities;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Snapshot snapshot;
+    private long generation;
+
+    public SearchIndexService(MovieRepository movieRepository,
+            CharacterRepository characterRepository,
+            DisneyParkAttractionRepository attractionRepository,
+            SearchCapabilitiesProperties capabilities,
+            PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.characterRepository = characterRepository;
+        this.attractionRepository = attractionRepository;
+        this.capabilities = capabilities;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild after a reseed has committed (or immediately when published
+     * outside a transaction).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogReseeded(CatalogReseededEvent event) {
+        log.info("Catalog reseeded ({}), rebuilding search index", event.dataset());
+        rebuild();
+    }
+
+    /**
+     * Load all searchable entities and atomically replace the current index.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        long nextGeneration = generation + 1;
+        Snapshot built = readOnlyTransaction.execute(status -> {
+            List<Movie> movies = movieRepository.findAll();
+            List<Character> characters = characterRepository.findAll();
+            List<DisneyParkAttraction> attractions = attractionRepository.findAll();
+            // Park name is read when building result DTOs, after the session is closed
+            attractions.forEach(attraction -> Hibernate.initialize(attraction.getPark()));
+
+            CategoryIndex<DisneyParkAttraction> parks = CategoryIndex.build(attractions, indexedFields("parks"),
+                    PARK_FIELD_EXTRACTORS);
+            return new Snapshot(nextGeneration,
+                    CategoryIndex.build(movies, indexedFields("movies"), MOVIE_FIELD_EXTRACTORS),
+                    CategoryIndex.build(characters, indexedFields("characters"), CHARACTER_FIELD_EXTRACTORS),
+                    parks,
+                    FacetIndex.build(parks.documents(), new TreeMap<>(PARK_FACET_EXTRACTORS)),
+                    Map.of(
+                            "movies", SuggestionTrie.build(movies.stream()
+                                    .map(movie -> new SuggestionTrie.Suggestion(movie.getId(), "movie",
+                                            movie.getTitle(), detailPath("/movies/", movie.getUrlId())))
+                                    .toList()),
+                            "characters", SuggestionTrie.build(characters.stream()
+                                    .map(character -> new SuggestionTrie.Suggestion(character.getId(), "character",
+                                            character.getName(), detailPath("/characters/", character.getUrlId())))
+                                    .toList()),
+                            "parks", SuggestionTrie.build(attractions.stream()
+                                    .map(attraction -> new SuggestionTrie.Suggestion(attraction.getId(), "park",
+                                            attraction.getName(), detailPath("/parks/", attraction.getUrlId())))
+                                    .toList())));
+        });
+        generation = nextGeneration;
+        snapshot = built;
+        log.info("Search index built in {} ms ({} movies, {} characters, {} attractions)",
+                (System.nanoTime() - start) / 1_000_000,
+                built.movies().size(), built.characters().size(), built.parks().size());
+    }
+
+    public CategoryIndex<Movie> movies() {
+        return current().movies();
+    }
+
+    public CategoryIndex<Character> characters() {
+        return current().characters();
+    }
+
+    public CategoryIndex<DisneyParkAttraction> parks() {
+        return current().parks();
+    }
+
+    /**
+     * Facets over {@link #parks()} documents: park, land_area, attraction_type,
+     * thrill_level and is_operational.
+     */
+    public FacetIndex parkFacets() {
+        return current().parkFacets();
+    }
+
+    /**
+     * Incremented on every rebuild, so callers can key derived data (e.g.
+     * cached responses) to the index it was computed from.
+     */
+    public long generation() {
+        return current().generation();
+    }
+
+    /**
+     * @return Suggestion trie for a category key, or {@code null} if unknown
+     */
+    public SuggestionTrie suggestions(String categoryKey) {
+        return current().suggestions().get(categoryKey);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // A search raced application startup; build synchronously
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Union of the fields of every scope configured for the category.
+     */
+    private Set<String> indexedFields(String categoryKey) {
+        Set<String> fields = new LinkedHashSet<>();
+        SearchCapabilitiesProperties.Category category = capabilities.getCategories().get(categoryKey);
+        if (category != null) {
+            category.getScopes().values().forEach(scope -> fields.addAll(scope.getFields()));
+        }
+        return fields;
+    }
+
+    private static String detailPath(String prefix, String urlId) {
+        return urlId == null ? null : prefix + urlId;
+    }
+
+    private record Snapshot(long generation,
+            CategoryIndex<Movie> movies,
+            CategoryIndex<Character> characters,
+            CategoryIndex<DisneyParkAttraction> parks,
+            FacetIndex parkFacets,
+            Map<String, SuggestionTrie> suggestions) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits lower-cased field values into index terms.
+ *
+ * A term is a maximal run of word characters: Unicode letters and digits
+ * ({@link Character#isLetterOrDigit}) and underscore. Exact match mode checks
+ * word boundaries with {@link #isWordChar} too, so index terms line up with
+ * them. This is wider than the {@code \b} boundary of
+ * {@link java.util.regex.Pattern}, which without
+ * {@code UNICODE_CHARACTER_CLASS} treats only ASCII letters and digits as
+ * word characters, so "é" ends a regex word but not a term.
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    public static boolean isWordChar(char ch) {
+        return ch == '_' || Character.isLetterOrDigit(ch);
+    }
+
+    /**
+     * Tokenize an already lower-cased value into its terms, in order of
+     * appearance (duplicates included).
+     */
+    public static List<String> tokenize(String lowerValue) {
+        List<String> terms = new ArrayList<>();
+        if (lowerValue == null) {
+            return terms;
+        }
+        int length = lowerValue.length();
+        int start = -1;
+        for (int i = 0; i < length; i++) {
+            boolean word = isWordChar(lowerValue.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                terms.add(lowerValue.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            terms.add(lowerValue.substring(start));
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,204 @@
+package com.harmadavtian.disneyapp.service.search.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prefix trie over display names (movie titles, character names, attraction
+ * names) for search-as-you-type suggestions.
+ *
+ * Every word start of a name is inserted as a key, so "lion" completes to
+ * "The Lion King" as well as "Lion Guard". Each node caches the best
+ * {@link #MAX_SUGGESTIONS} entries beneath it, so a lookup costs one step per
+ * query character and never walks the subtree.
+ *
+ * Ranking: names that start with the prefix beat mid-name word matches, then
+ * shorter names win, then alphabetical order.
+ */
+public final class SuggestionTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private final List<Suggestion> entries;
+    private final Node root;
+
+    private SuggestionTrie(List<Suggestion> entries, Node root) {
+        this.entries = entries;
+        this.root = root;
+    }
+
+    public static SuggestionTrie build(List<Suggestion> suggestions) {
+        List<Suggestion> entries = List.copyOf(suggestions);
+        List<Key> keys = new ArrayList<>();
+        for (int entry = 0; entry < entries.size(); entry++) {
+            String text = normalize(entries.get(entry).title());
+            for (int start = 0; start < text.length(); start++) {
+                boolean wordStart = SearchTokenizer.isWordChar(text.charAt(start))
+                        && (start == 0 || !SearchTokenizer.isWordChar(text.charAt(start - 1)));
+                if (wordStart) {
+                    keys.add(new Key(text.substring(start), entry, start > 0, text));
+                }
+            }
+        }
+
+        // Inserting in rank order means each node's cached list is already sorted
+        keys.sort(Comparator.comparing(Key::midName)
+                .thenComparingInt(key -> key.fullText().length())
+                .thenComparing(Key::fullText)
+                .thenComparingInt(Key::entry));
+
+        Node root = new Node();
+        for (Key key : keys) {
+            Node node = root;
+            node.offer(key.entry());
+            for (int i = 0; i < key.text().length(); i++) {
+                node = node.childOrCreate(key.text().charAt(i));
+                node.offer(key.entry());
+            }
+        }
+        root.compact();
+        return new SuggestionTrie(entries, root);
+    }
+
+    /**
+     * Best suggestions for a prefix, at most {@code min(limit, MAX_SUGGESTIONS)}.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < normalized.length() && node != null; i++) {
+            node = node.child(normalized.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        int count = Math.min(Math.min(limit, MAX_SUGGESTIONS), node.topSize);
+        List<Suggestion> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(entries.get(node.top[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Combine suggestions from several tries (one per category) under the same
+     * ranking the tries use internally.
+     */
+    public static List<Suggestion> suggestAcross(List<SuggestionTrie> tries, String prefix, int limit) {
+        String normalized = normalize(prefix);
+        List<Ranked> merged = new ArrayList<>();
+        for (SuggestionTrie trie : tries) {
+            for (Suggestion suggestion : trie.suggest(prefix, limit)) {
+                String title = normalize(suggestion.title());
+                merged.add(new Ranked(suggestion, !title.startsWith(normalized), title));
+            }
+        }
+        merged.sort(Comparator.comparing(Ranked::midName)
+                .thenComparingInt(ranked -> ranked.title().length())
+                .thenComparing(Ranked::title));
+        return merged.stream().limit(limit).map(Ranked::suggestion).toList();
+    }
+
+    /**
+     * Lower-case, trim and collapse runs of whitespace to a single space.
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String lower = value.trim().toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(lower.length());
+        boolean previousSpace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char ch = lower.charAt(i);
+            boolean space = Character.isWhitespace(ch);
+            if (!space) {
+                normalized.append(ch);
+            } else if (!previousSpace) {
+                normalized.append(' ');
+            }
+            previousSpace = space;
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * A completion target.
+     *
+     * @param type       Result type ("movie", "character", "park")
+     * @param detailPath Frontend route for the item
+     */
+    public record Suggestion(Long id, String type, String title, String detailPath) {
+    }
+
+    private record Key(String text, int entry, boolean midName, String fullText) {
+    }
+
+    private record Ranked(Suggestion suggestion, boolean midName, String title) {
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private int[] top = new int[MAX_SUGGESTIONS];
+        private int topSize;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node child = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = child;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void offer(int entry) {
+            if (topSize == MAX_SUGGESTIONS) {
+                return;
+            }
+            for (int i = 0; i < topSize; i++) {
+                if (top[i] == entry) {
+                    return;
+                }
+            }
+            top[topSize++] = entry;
+        }
+
+        /**
+         * Trim cached lists once building is done; most deep nodes hold a
+         * single entry.
+         */
+        void compact() {
+            top = Arrays.copyOf(top, topSize);
+            for (Node child : children) {
+                child.compact();
+            }
+        }
+    }
+}
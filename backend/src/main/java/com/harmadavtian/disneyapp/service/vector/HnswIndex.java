@@ -0,0 +1,299 @@
+package com.harmadavtian.disneyapp.service.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Hierarchical Navigable Small World graph for approximate nearest neighbour
+ * search by cosine similarity.
+ *
+ * The graph stores only links; vectors are read in place from a
+ * {@link VectorSpace} of unit-length vectors (e.g. a
+ * {@link MappedEmbeddingStore}), addressed by ordinal, so cosine similarity is
+ * a dot product and distance is {@code 1 - dot}. A graph may cover a subset
+ * of the space's ordinals (e.g. one content type). Each node gets a random level
+ * (geometric with {@code 1 / ln(M)}); upper layers are sparse express lanes,
+ * layer 0 holds every node with up to {@code 2M} links. Neighbours are chosen
+ * with the diversity heuristic from the HNSW paper, which keeps the graph
+ * navigable on clustered data.
+ *
+ * Not thread-safe while building. Once built and published (e.g. through a
+ * volatile field) searches may run concurrently.
+ */
+public final class HnswIndex {
+
+    private final VectorSpace space;
+    private final int maxLinks;
+    private final int maxLinksLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    /** Space ordinal of each node. */
+    private int[] ordinals = new int[16];
+    private int size;
+    /** Per node, per level: neighbour node ids. */
+    private final List<int[][]> links = new ArrayList<>();
+
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    /**
+     * @param space          Vectors the graph links together
+     * @param m              Links per node on upper layers (layer 0 keeps 2M)
+     * @param efConstruction Candidate list size while inserting
+     */
+    public HnswIndex(VectorSpace space, int m, int efConstruction) {
+        if (m < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("Invalid HNSW parameters");
+        }
+        this.space = space;
+        this.maxLinks = m;
+        this.maxLinksLayer0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Link the space's vector {@code ordinal} into the graph.
+     */
+    public void add(int ordinal) {
+        int node = size;
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        if (node == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, node * 2);
+        }
+        ordinals[node] = ordinal;
+        size++;
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[0];
+        }
+        links.add(nodeLinks);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLevel = level;
+            return;
+        }
+
+        Distance toNode = other -> 1 - space.dot(ordinal, ordinals[other]);
+        int current = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            current = greedyClosest(toNode, current, l);
+        }
+        List<Candidate> entries = List.of(new Candidate(current, toNode.to(current)));
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            List<Candidate> found = searchLayer(toNode, entries, efConstruction, l);
+            int limit = l == 0 ? maxLinksLayer0 : maxLinks;
+            List<Candidate> selected = selectNeighbours(found, maxLinks);
+            nodeLinks[l] = ids(selected);
+            for (Candidate neighbour : selected) {
+                connect(neighbour.node(), node, l, limit);
+            }
+            entries = found;
+        }
+
+        if (level > topLevel) {
+            topLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * The (approximately) {@code k} most similar vectors, best first.
+     *
+     * @param unitQuery Query normalised to unit length
+     * @param ef        Candidate list size; larger is slower but more
+     *                  accurate. Raised to {@code k} if smaller.
+     */
+    public List<Hit> search(float[] unitQuery, int k, int ef) {
+        if (entryPoint < 0 || k <= 0) {
+            return List.of();
+        }
+        if (unitQuery.length != space.dimensions()) {
+            throw new IllegalArgumentException("Expected a " + space.dimensions() + "-dimensional vector");
+        }
+        IntToDoubleFunction similarity = space.scorer(unitQuery);
+        Distance toQuery = node -> 1 - similarity.applyAsDouble(ordinals[node]);
+        int current = entryPoint;
+        for (int l = topLevel; l > 0; l--) {
+            current = greedyClosest(toQuery, current, l);
+        }
+        List<Candidate> found = searchLayer(toQuery,
+                List.of(new Candidate(current, toQuery.to(current))), Math.max(ef, k), 0);
+        List<Hit> hits = new ArrayList<>(Math.min(k, found.size()));
+        for (int i = 0; i < found.size() && i < k; i++) {
+            Candidate candidate = found.get(i);
+            hits.add(new Hit(ordinals[candidate.node()], 1 - candidate.distance()));
+        }
+        return hits;
+    }
+
+    /**
+     * Walk towards {@code query} on one layer until no neighbour is closer.
+     */
+    private int greedyClosest(Distance distance, int start, int level) {
+        int current = start;
+        double currentDistance = distance.to(current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : links.get(current)[level]) {
+                double d = distance.to(neighbour);
+                if (d < currentDistance) {
+                    current = neighbour;
+                    currentDistance = d;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer.
+     *
+     * @return Up to {@code ef} nearest nodes found, closest first
+     */
+    private List<Candidate> searchLayer(Distance distance, List<Candidate> entries, int ef, int level) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+        PriorityQueue<Candidate> nearest = new PriorityQueue<>(
+                Comparator.comparingDouble(Candidate::distance).reversed());
+        for (Candidate entry : entries) {
+            visited.set(entry.node());
+            frontier.add(entry);
+            nearest.add(entry);
+            if (nearest.size() > ef) {
+                nearest.poll();
+            }
+        }
+
+        while (!frontier.isEmpty()) {
+            Candidate closest = frontier.poll();
+            if (nearest.size() >= ef && closest.distance() > nearest.peek().distance()) {
+                break;
+            }
+            int[][] nodeLinks = links.get(closest.node());
+            if (level >= nodeLinks.length) {
+                continue;
+            }
+            for (int neighbour : nodeLinks[level]) {
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                double d = distance.to(neighbour);
+                if (nearest.size() < ef || d < nearest.peek().distance()) {
+                    Candidate candidate = new Candidate(neighbour, d);
+                    frontier.add(candidate);
+                    nearest.add(candidate);
+                    if (nearest.size() > ef) {
+                        nearest.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(Candidate::distance));
+        return result;
+    }
+
+    /**
+     * Diversity heuristic: take candidates closest first, skipping any that is
+     * closer to an already selected neighbour than to the base node; fill any
+     * remaining slots with the skipped candidates.
+     *
+     * @param candidates Sorted closest first
+     */
+    private List<Candidate> selectNeighbours(List<Candidate> candidates, int limit) {
+        List<Candidate> selected = new ArrayList<>(limit);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= limit) {
+                break;
+            }
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (nodeDistance(candidate.node(), chosen.node()) < candidate.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < limit; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Add a back-link {@code from → to}, re-selecting {@code from}'s
+     * neighbours if it now has too many.
+     */
+    private void connect(int from, int to, int level, int limit) {
+        int[][] fromLinks = links.get(from);
+        int[] current = fromLinks[level];
+        int[] extended = new int[current.length + 1];
+        System.arraycopy(current, 0, extended, 0, current.length);
+        extended[current.length] = to;
+        if (extended.length <= limit) {
+            fromLinks[level] = extended;
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(extended.length);
+        for (int neighbour : extended) {
+            candidates.add(new Candidate(neighbour, nodeDistance(from, neighbour)));
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::distance));
+        fromLinks[level] = ids(selectNeighbours(candidates, limit));
+    }
+
+    private double nodeDistance(int a, int b) {
+        return 1 - space.dot(ordinals[a], ordinals[b]);
+    }
+
+    private static int[] ids(List<Candidate> candidates) {
+        int[] ids = new int[candidates.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = candidates.get(i).node();
+        }
+        return ids;
+    }
+
+    /**
+     * Distance from a fixed point (the query or the node being inserted) to a
+     * graph node.
+     */
+    @FunctionalInterface
+    private interface Distance {
+        double to(int node);
+    }
+
+    private record Candidate(int node, double distance) {
+    }
+
+    /**
+     * A search result: the space ordinal and its cosine similarity to the query
+     * (1 = identical).
+     */
+    public record Hit(int ordinal, double similarity) {
+    }
+}
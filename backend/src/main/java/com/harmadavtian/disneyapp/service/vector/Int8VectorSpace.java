@@ -0,0 +1,103 @@
+package com.harmadavtian.disneyapp.service.vector;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Int8 scalar-quantized copy of a {@link MappedEmbeddingStore}.
+ *
+ * Each unit-length vector is stored as one signed byte per dimension plus a
+ * float scale ({@code max |v_i| / 127}), so a 768-dimensional vector takes
+ * 772 bytes instead of 3,072. A query is quantized the same way once per
+ * {@link #scorer}, and every comparison is an integer dot product on the
+ * {@link SimilarityKernel} times the two scales. Results are approximate
+ * (rounding error of about half a step per component); callers re-rank the
+ * best candidates against the float vectors in the store.
+ *
+ * Ordinals match the source store. Immutable once built.
+ */
+public final class Int8VectorSpace implements VectorSpace {
+
+    private final SimilarityKernel kernel = SimilarityKernels.preferred();
+    private final int dimensions;
+    private final int size;
+    private final byte[] codes;
+    private final float[] scales;
+
+    private Int8VectorSpace(int dimensions, int size, byte[] codes, float[] scales) {
+        this.dimensions = dimensions;
+        this.size = size;
+        this.codes = codes;
+        this.scales = scales;
+    }
+
+    /**
+     * Quantize every vector of {@code store}.
+     */
+    public static Int8VectorSpace quantize(MappedEmbeddingStore store) {
+        int dimensions = store.dimensions();
+        int size = store.size();
+        byte[] codes = new byte[size * dimensions];
+        float[] scales = new float[size];
+        float[] row = new float[dimensions];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            store.read(ordinal, row);
+            scales[ordinal] = quantize(row, codes, ordinal * dimensions);
+        }
+        return new Int8VectorSpace(dimensions, size, codes, scales);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Heap bytes held by the quantized vectors.
+     */
+    public long bytes() {
+        return codes.length + (long) scales.length * Float.BYTES;
+    }
+
+    @Override
+    public double dot(int a, int b) {
+        return (double) kernel.dot(codes, a * dimensions, codes, b * dimensions, dimensions)
+                * scales[a] * scales[b];
+    }
+
+    @Override
+    public double dot(int ordinal, float[] unitQuery) {
+        return scorer(unitQuery).applyAsDouble(ordinal);
+    }
+
+    /**
+     * Quantizes the query once; each call is then one int8 kernel call.
+     */
+    @Override
+    public IntToDoubleFunction scorer(float[] unitQuery) {
+        byte[] query = new byte[dimensions];
+        float queryScale = quantize(unitQuery, query, 0);
+        return ordinal -> (double) kernel.dot(codes, ordinal * dimensions, query, 0, dimensions)
+                * scales[ordinal] * queryScale;
+    }
+
+    /**
+     * Write {@code vector} as int8 codes at {@code into[offset]}.
+     *
+     * @return The scale to multiply codes by
+     */
+    private static float quantize(float[] vector, byte[] into, int offset) {
+        float maxAbs = 0;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        float scale = maxAbs == 0 ? 1 : maxAbs / 127;
+        for (int i = 0; i < vector.length; i++) {
+            into[offset + i] = (byte) Math.round(vector[i] / scale);
+        }
+        return scale;
+    }
+}
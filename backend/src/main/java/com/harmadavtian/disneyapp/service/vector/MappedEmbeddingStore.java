@@ -0,0 +1,375 @@
+package com.harmadavtian.disneyapp.service.vector;
+
+import com.harmadavtian.disneyapp.model.ContentEmbedding;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only, memory-mapped file holding every embedding of one model.
+ *
+ * Layout: a length-prefixed header (model version, fingerprint of the
+ * source rows, dimensions, and per-row metadata: embedding_id, content_id,
+ * content_type, text_content, timestamps), padded to a 64-byte boundary,
+ * followed by all vectors as contiguous little-endian float32, normalised
+ * to unit length. Vectors stay in the page cache rather than on the Java
+ * heap, and similarity is computed in place without per-query allocation.
+ *
+ * Rows are stored grouped by content_type (then by embedding_id), so each
+ * type occupies one contiguous {@link Range} of ordinals, and
+ * {@link #ordinalOf} finds a row by embedding_id without a scan.
+ *
+ * The file name encodes the model version and fingerprint, so a restart with
+ * unchanged content_embeddings maps the existing file instead of re-reading
+ * and re-parsing the table.
+ */
+public final class MappedEmbeddingStore implements VectorSpace {
+
+    private static final int MAGIC = 0x454D4253; // "EMBS"
+    private static final int VERSION = 2;
+    private static final int ALIGNMENT = 64;
+
+    private final String modelVersion;
+    private final String fingerprint;
+    private final int dimensions;
+    private final List<ContentEmbedding> records;
+    private final Map<Long, Integer> ordinalsById;
+    private final Map<String, Range> rangesByType;
+    private final FloatBuffer vectors;
+
+    private MappedEmbeddingStore(String modelVersion, String fingerprint, int dimensions,
+            List<ContentEmbedding> records, Map<Long, Integer> ordinalsById,
+            Map<String, Range> rangesByType, FloatBuffer vectors) {
+        this.modelVersion = modelVersion;
+        this.fingerprint = fingerprint;
+        this.dimensions = dimensions;
+        this.records = records;
+        this.ordinalsById = ordinalsById;
+        this.rangesByType = rangesByType;
+        this.vectors = vectors;
+    }
+
+    /**
+     * File holding the store for a model version and source fingerprint.
+     */
+    public static Path fileFor(Path directory, String modelVersion, String fingerprint) {
+        String safeModel = modelVersion.replaceAll("[^A-Za-z0-9._-]", "_");
+        return directory.resolve(safeModel + "-" + Integer.toHexString(fingerprint.hashCode()) + ".vec");
+    }
+
+    /**
+     * Write {@code embeddings} (which must carry their vectors) to {@code file}
+     * and map it. Rows are reordered by content type and embedding_id. The
+     * file is written beside the target and moved into place, so readers never
+     * map a partial file.
+     */
+    public static MappedEmbeddingStore write(Path file, String modelVersion, String fingerprint,
+            List<ContentEmbedding> rows) throws IOException {
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("No embeddings to store");
+        }
+        List<ContentEmbedding> embeddings = new ArrayList<>(rows);
+        embeddings.sort(Comparator.comparing(ContentEmbedding::getContentType)
+                .thenComparing(ContentEmbedding::getEmbeddingId));
+        int dimensions = embeddings.get(0).getEmbedding().length;
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        try (DataOutputStream header = new DataOutputStream(headerBytes)) {
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeUTF(modelVersion);
+            header.writeUTF(fingerprint);
+            header.writeInt(dimensions);
+            header.writeInt(embeddings.size());
+            for (ContentEmbedding embedding : embeddings) {
+                if (embedding.getEmbedding().length != dimensions) {
+                    throw new IllegalArgumentException("Mixed embedding dimensions in model " + modelVersion);
+                }
+                header.writeLong(embedding.getEmbeddingId());
+                header.writeLong(embedding.getContentId());
+                header.writeUTF(embedding.getContentType());
+                byte[] text = embedding.getTextContent().getBytes(StandardCharsets.UTF_8);
+                header.writeInt(text.length);
+                header.write(text);
+                header.writeLong(toEpochMillis(embedding.getCreatedAt()));
+                header.writeLong(toEpochMillis(embedding.getUpdatedAt()));
+            }
+        }
+        byte[] header = headerBytes.toByteArray();
+        long vectorsOffset = align(Integer.BYTES + header.length);
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "embeddings", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer prefix = ByteBuffer.allocate((int) vectorsOffset);
+            prefix.putInt(header.length).put(header);
+            prefix.rewind();
+            channel.write(prefix);
+
+            ByteBuffer vector = ByteBuffer.allocate(dimensions * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (ContentEmbedding embedding : embeddings) {
+                vector.clear();
+                for (float value : unit(embedding.getEmbedding())) {
+                    vector.putFloat(value);
+                }
+                vector.flip();
+                channel.write(vector);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        return open(file);
+    }
+
+    /**
+     * Map an existing store file.
+     *
+     * @throws IOException if the file is missing, truncated, not a store, or
+     *                     written by an older version
+     */
+    public static MappedEmbeddingStore open(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.capacity() < Integer.BYTES) {
+            throw new IOException("Truncated embedding store: " + file);
+        }
+        int headerLength = mapped.getInt(0);
+        if (headerLength <= 0 || Integer.BYTES + (long) headerLength > mapped.capacity()) {
+            throw new IOException("Corrupt embedding store header: " + file);
+        }
+        byte[] header = new byte[headerLength];
+        mapped.get(Integer.BYTES, header);
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(header))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an embedding store (or unsupported version): " + file);
+            }
+            String modelVersion = in.readUTF();
+            String fingerprint = in.readUTF();
+            int dimensions = in.readInt();
+            int count = in.readInt();
+            List<ContentEmbedding> records = new ArrayList<>(count);
+            Map<Long, Integer> ordinalsById = new HashMap<>(count * 4 / 3 + 1);
+            Map<String, Range> rangesByType = new LinkedHashMap<>();
+            String currentType = null;
+            int typeStart = 0;
+            for (int i = 0; i < count; i++) {
+                ContentEmbedding record = new ContentEmbedding();
+                record.setEmbeddingId(in.readLong());
+                record.setContentId(in.readLong());
+                record.setContentType(in.readUTF());
+                byte[] text = new byte[in.readInt()];
+                in.readFully(text);
+                record.setTextContent(new String(text, StandardCharsets.UTF_8));
+                record.setCreatedAt(fromEpochMillis(in.readLong()));
+                record.setUpdatedAt(fromEpochMillis(in.readLong()));
+                record.setModelVersion(modelVersion);
+                records.add(record);
+                ordinalsById.put(record.getEmbeddingId(), i);
+                if (!record.getContentType().equals(currentType)) {
+                    if (currentType != null) {
+                        rangesByType.put(currentType, new Range(typeStart, i));
+                    }
+                    if (rangesByType.containsKey(record.getContentType())) {
+                        throw new IOException("Embedding store rows not grouped by content type: " + file);
+                    }
+                    currentType = record.getContentType();
+                    typeStart = i;
+                }
+            }
+            if (currentType != null) {
+                rangesByType.put(currentType, new Range(typeStart, count));
+            }
+
+            long vectorsOffset = align(Integer.BYTES + headerLength);
+            long vectorBytes = (long) count * dimensions * Float.BYTES;
+            if (vectorsOffset + vectorBytes != mapped.capacity()) {
+                throw new IOException("Embedding store size mismatch: " + file);
+            }
+            FloatBuffer vectors = mapped.slice((int) vectorsOffset, (int) vectorBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asFloatBuffer();
+            return new MappedEmbeddingStore(modelVersion, fingerprint, dimensions,
+                    Collections.unmodifiableList(records), ordinalsById,
+                    Collections.unmodifiableMap(rangesByType), vectors);
+        }
+    }
+
+    public String modelVersion() {
+        return modelVersion;
+    }
+
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Ordinals of every row.
+     */
+    public Range all() {
+        return new Range(0, records.size());
+    }
+
+    /**
+     * Ordinals of each content type's rows, in type order.
+     */
+    public Map<String, Range> rangesByType() {
+        return rangesByType;
+    }
+
+    /**
+     * Ordinals of one content type's rows, or null if it has none.
+     */
+    public Range range(String contentType) {
+        return rangesByType.get(contentType);
+    }
+
+    /**
+     * Ordinal of the row with {@code embeddingId}, or -1 if it is not stored.
+     */
+    public int ordinalOf(long embeddingId) {
+        return ordinalsById.getOrDefault(embeddingId, -1);
+    }
+
+    /**
+     * Row metadata (without the vector) for an ordinal. Shared; do not modify.
+     */
+    public ContentEmbedding record(int ordinal) {
+        return records.get(ordinal);
+    }
+
+    /**
+     * Copy of a stored (unit-length) vector.
+     */
+    public float[] vector(int ordinal) {
+        float[] copy = new float[dimensions];
+        read(ordinal, copy);
+        return copy;
+    }
+
+    /**
+     * Bulk-copy a stored vector into {@code into} (at least
+     * {@link #dimensions()} long), for kernels that work on arrays.
+     */
+    public void read(int ordinal, float[] into) {
+        vectors.get(ordinal * dimensions, into, 0, dimensions);
+    }
+
+    @Override
+    public double dot(int a, int b) {
+        int baseA = a * dimensions;
+        int baseB = b * dimensions;
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int end = dimensions - 3; i < end; i += 4) {
+            s0 += vectors.get(baseA + i) * vectors.get(baseB + i);
+            s1 += vectors.get(baseA + i + 1) * vectors.get(baseB + i + 1);
+            s2 += vectors.get(baseA + i + 2) * vectors.get(baseB + i + 2);
+            s3 += vectors.get(baseA + i + 3) * vectors.get(baseB + i + 3);
+        }
+        for (; i < dimensions; i++) {
+            s0 += vectors.get(baseA + i) * vectors.get(baseB + i);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public double dot(int ordinal, float[] unitQuery) {
+        int base = ordinal * dimensions;
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int end = dimensions - 3; i < end; i += 4) {
+            s0 += vectors.get(base + i) * unitQuery[i];
+            s1 += vectors.get(base + i + 1) * unitQuery[i + 1];
+            s2 += vectors.get(base + i + 2) * unitQuery[i + 2];
+            s3 += vectors.get(base + i + 3) * unitQuery[i + 3];
+        }
+        for (; i < dimensions; i++) {
+            s0 += vectors.get(base + i) * unitQuery[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Unit-length copy of {@code vector}.
+     *
+     * @throws IllegalArgumentException for a zero vector
+     */
+    public static float[] unit(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            throw new IllegalArgumentException("Cannot normalise a zero vector");
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = vector[i] * scale;
+        }
+        return unit;
+    }
+
+    /**
+     * Contiguous ordinals {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    public record Range(int from, int to) {
+
+        public int size() {
+            return to - from;
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long millis) {
+        return millis == Long.MIN_VALUE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
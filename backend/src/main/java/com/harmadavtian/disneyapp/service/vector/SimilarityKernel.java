@@ -0,0 +1,43 @@
+package com.harmadavtian.disneyapp.service.vector;
+
+/**
+ * Dot product over unit-length float vectors, i.e. cosine similarity without
+ * recomputing norms.
+ *
+ * {@link SimilarityKernels#preferred()} returns the Java Vector API
+ * implementation when {@code jdk.incubator.vector} is available at runtime
+ * and the scalar one otherwise. Both accumulate in float and may differ from
+ * each other in the last bits, never in ranking beyond ties.
+ */
+public interface SimilarityKernel {
+
+    /**
+     * Dot product of {@code a[aOffset, aOffset + length)} and
+     * {@code b[bOffset, bOffset + length)}.
+     */
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * Dot product of two int8 code ranges, accumulated exactly in int (a
+     * 768-dimensional product of codes in [-127, 127] stays far below
+     * {@code Integer.MAX_VALUE}).
+     */
+    int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length);
+
+    /**
+     * Dot product of two whole vectors of the same length.
+     *
+     * @throws IllegalArgumentException if the lengths differ
+     */
+    default float dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Vectors must have same dimensions");
+        }
+        return dot(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * Short name for logs and benchmarks.
+     */
+    String name();
+}
@@ -0,0 +1,60 @@
+package com.harmadavtian.disneyapp.service.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+
+/**
+ * Picks the {@link SimilarityKernel} for this JVM once.
+ *
+ * The Vector API is an incubator module: it is only resolved when the JVM
+ * starts with {@code --add-modules jdk.incubator.vector} (set in the
+ * Dockerfile and the spring-boot:run configuration). Without it the scalar
+ * kernel is used, so the application still runs on a plain {@code java -jar}.
+ */
+public final class SimilarityKernels {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarityKernels.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final SimilarityKernel VECTOR_API = loadVectorApi();
+    private static final SimilarityKernel PREFERRED = VECTOR_API != null ? VECTOR_API : scalar();
+
+    static {
+        log.info("Similarity kernel: {}", PREFERRED.name());
+    }
+
+    private SimilarityKernels() {
+    }
+
+    public static SimilarityKernel preferred() {
+        return PREFERRED;
+    }
+
+    public static SimilarityKernel scalar() {
+        return ScalarSimilarityKernel.INSTANCE;
+    }
+
+    /**
+     * @return The Vector API kernel, or empty when the module is not resolved
+     */
+    public static Optional<SimilarityKernel> vectorApi() {
+        return Optional.ofNullable(VECTOR_API);
+    }
+
+    private static SimilarityKernel loadVectorApi() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            // Loaded reflectively so this class links without the module
+            return (SimilarityKernel) Class.forName(SimilarityKernels.class.getPackageName()
+                    + ".VectorApiSimilarityKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("{} is present but the vector kernel failed to load; using scalar", VECTOR_MODULE, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.harmadavtian.disneyapp.service.vector;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link SimilarityKernel} on the Java Vector API: fused multiply-add over
+ * the platform's preferred lane count (8 floats with AVX2, 16 with AVX-512),
+ * reduced once at the end.
+ *
+ * Int8 codes are widened byte → short (products of two codes fit in a short)
+ * → int, with as many int lanes as the preferred shape holds. Platforms whose
+ * preferred shape is narrower than 256 bits use the scalar int8 loop.
+ *
+ * Only loaded through {@link SimilarityKernels}, which checks that
+ * {@code jdk.incubator.vector} is resolved ({@code --add-modules
+ * jdk.incubator.vector}) before touching this class.
+ */
+final class VectorApiSimilarityKernel implements SimilarityKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final boolean WIDE_INT8 = INT_SPECIES.length() >= 8;
+    private static final VectorSpecies<Byte> BYTE_SPECIES = WIDE_INT8
+            ? VectorSpecies.of(byte.class, VectorShape.forBitSize(INT_SPECIES.length() * Byte.SIZE))
+            : null;
+    private static final VectorSpecies<Short> SHORT_SPECIES = WIDE_INT8
+            ? VectorSpecies.of(short.class, VectorShape.forBitSize(INT_SPECIES.length() * Short.SIZE))
+            : null;
+
+    VectorApiSimilarityKernel() {
+    }
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector acc0 = FloatVector.zero(SPECIES);
+        FloatVector acc1 = FloatVector.zero(SPECIES);
+        int lanes = SPECIES.length();
+        int i = 0;
+        for (int end = length - 2 * lanes; i <= end; i += 2 * lanes) {
+            acc0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i), acc0);
+            acc1 = FloatVector.fromArray(SPECIES, a, aOffset + i + lanes)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i + lanes), acc1);
+        }
+        for (int end = length - lanes; i <= end; i += lanes) {
+            acc0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i), acc0);
+        }
+        float sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        if (!WIDE_INT8) {
+            return ScalarSimilarityKernel.INSTANCE.dot(a, aOffset, b, bOffset, length);
+        }
+        IntVector acc = IntVector.zero(INT_SPECIES);
+        int lanes = INT_SPECIES.length();
+        int i = 0;
+        for (int end = length - lanes; i <= end; i += lanes) {
+            ShortVector x = (ShortVector) ByteVector.fromArray(BYTE_SPECIES, a, aOffset + i)
+                    .convertShape(VectorOperators.B2S, SHORT_SPECIES, 0);
+            ShortVector y = (ShortVector) ByteVector.fromArray(BYTE_SPECIES, b, bOffset + i)
+                    .convertShape(VectorOperators.B2S, SHORT_SPECIES, 0);
+            acc = acc.add(x.mul(y).convertShape(VectorOperators.S2I, INT_SPECIES, 0));
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "vector-api(" + SPECIES.length() + " lanes)";
+    }
+}
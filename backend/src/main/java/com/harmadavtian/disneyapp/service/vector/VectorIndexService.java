@@ -0,0 +1,504 @@
+package com.harmadavtian.disneyapp.service.vector;
+
+import com.harmadavtian.disneyapp.model.ContentEmbedding;
+import com.harmadavtian.disneyapp.repository.ContentEmbeddingRepository;
+import com.harmadavtian.disneyapp.repository.ScoredEmbedding;
+import com.harmadavtian.disneyapp.service.EmbeddingsUpdatedEvent;
+import com.harmadavtian.disneyapp.service.llm.LLMClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * In-memory HNSW index over content_embeddings for RAG retrieval.
+ *
+ * Vectors live in a {@link MappedEmbeddingStore} file under
+ * {@code rag.vector-index.store-dir}; the graphs hold only links and read
+ * vectors from the mapping. On startup the table is fingerprinted (count,
+ * highest id, latest update) and a store file with a matching fingerprint is
+ * mapped as is; otherwise rows are loaded once and a new file is written.
+ * The graphs are rebuilt after every committed
+ * {@link com.harmadavtian.disneyapp.service.EmbeddingService#generateAllEmbeddings}
+ * run. One graph covers all content types and one more per content type, so
+ * filtered queries stay exact top-K searches instead of post-filtering.
+ *
+ * Graphs are only built for more than {@code rag.vector-index.exact-max-size}
+ * vectors. Smaller sets (the whole corpus, or one content type) are served
+ * by scanning their ordinal range, which at that size costs about as much
+ * as a graph search. {@link #exactSearch} always runs an exact float scan
+ * with the {@link SimilarityKernel}.
+ *
+ * With int8 quantization ({@code rag.vector-index.quantization}, by default
+ * on when the Vector API kernel is available) graphs and scans run over
+ * an {@link Int8VectorSpace} (about a quarter of the memory), fetch
+ * {@code rerank-factor × k} candidates and re-rank them exactly against the
+ * float vectors in the store. {@link #measureRecall} reports how each path
+ * compares with pgvector.
+ *
+ * pgvector remains the source of truth: {@link #search} returns empty when
+ * the index is disabled, not yet loaded, failed to load, or was built for a
+ * different embedding model, and callers then query the database.
+ */
+@Service
+public class VectorIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorIndexService.class);
+
+    private static final Comparator<HnswIndex.Hit> BEST_FIRST = Comparator
+            .comparingDouble(HnswIndex.Hit::similarity).reversed()
+            .thenComparingInt(HnswIndex.Hit::ordinal);
+
+    private final ContentEmbeddingRepository embeddingRepository;
+    private final LLMClient llmClient;
+    private final boolean enabled;
+    private final Path storeDirectory;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int exactMaxSize;
+    private final boolean quantize;
+    private final int rerankFactor;
+    private final SimilarityKernel kernel = SimilarityKernels.preferred();
+
+    private volatile Snapshot snapshot;
+
+    public VectorIndexService(ContentEmbeddingRepository embeddingRepository,
+            LLMClient llmClient,
+            @Value("${rag.vector-index.enabled:true}") boolean enabled,
+            @Value("${rag.vector-index.store-dir:${java.io.tmpdir}/disneyapp-vectors}") String storeDirectory,
+            @Value("${rag.vector-index.m:16}") int m,
+            @Value("${rag.vector-index.ef-construction:100}") int efConstruction,
+            @Value("${rag.vector-index.ef-search:64}") int efSearch,
+            @Value("${rag.vector-index.exact-max-size:1000}") int exactMaxSize,
+            @Value("${rag.vector-index.quantization:auto}") String quantization,
+            @Value("${rag.vector-index.rerank-factor:4}") int rerankFactor) {
+        this.embeddingRepository = embeddingRepository;
+        this.llmClient = llmClient;
+        this.enabled = enabled;
+        this.storeDirectory = Path.of(storeDirectory);
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.exactMaxSize = exactMaxSize;
+        this.quantize = switch (quantization.trim().toLowerCase(Locale.ROOT)) {
+            // The scalar int8 loop is slower than float; only worth it with SIMD
+            case "auto" -> SimilarityKernels.vectorApi().isPresent();
+            case "int8" -> true;
+            case "none" -> false;
+            default -> throw new IllegalArgumentException(
+                    "rag.vector-index.quantization must be 'auto', 'none' or 'int8': " + quantization);
+        };
+        this.rerankFactor = Math.max(1, rerankFactor);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reload after embeddings were (re)generated and committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmbeddingsUpdated(EmbeddingsUpdatedEvent event) {
+        log.info("Embeddings updated ({} generated), rebuilding vector index", event.generated());
+        rebuild();
+    }
+
+    /**
+     * Map (or write) the store for the current rows and atomically replace
+     * the index. On failure the previous index is dropped, so queries fall
+     * back to pgvector rather than serve a stale graph.
+     */
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        String modelVersion = llmClient.getEmbeddingModelName();
+        long start = System.nanoTime();
+        try {
+            String fingerprint = embeddingRepository.embeddingFingerprint(modelVersion);
+            MappedEmbeddingStore store = openOrWriteStore(modelVersion, fingerprint);
+            if (store == null) {
+                snapshot = null;
+                log.info("No '{}' embeddings found, vector index not built", modelVersion);
+                return;
+            }
+
+            Int8VectorSpace quantized = quantize ? Int8VectorSpace.quantize(store) : null;
+            VectorSpace space = quantized != null ? quantized : store;
+            HnswIndex all = graphFor(space, store.all());
+            Map<String, HnswIndex> byType = new HashMap<>();
+            store.rangesByType().forEach((type, range) -> {
+                HnswIndex index = graphFor(space, range);
+                if (index != null) {
+                    byType.put(type, index);
+                }
+            });
+            snapshot = new Snapshot(store, quantized, all, Map.copyOf(byType));
+            log.info("Vector index built in {} ms ({} embeddings, {} dimensions, {}, types {}, graphs {})",
+                    (System.nanoTime() - start) / 1_000_000, store.size(), store.dimensions(),
+                    quantized != null ? "int8 " + quantized.bytes() / 1024 + " KiB" : "float32",
+                    store.rangesByType().keySet(), all != null ? "all + " + byType.keySet() : byType.keySet());
+            deleteStaleStores(MappedEmbeddingStore.fileFor(storeDirectory, modelVersion, fingerprint));
+        } catch (IOException | RuntimeException e) {
+            snapshot = null;
+            log.error("Failed to build vector index; RAG retrieval falls back to pgvector", e);
+        }
+    }
+
+    /**
+     * Approximate top-K by cosine similarity.
+     *
+     * Returned embeddings are copies of the row metadata and text without the
+     * vector (the similarity is returned alongside), so callers may use and
+     * modify them freely.
+     *
+     * @param contentType Optional content type filter
+     * @return Embeddings best first, or empty if the caller should use pgvector
+     */
+    public Optional<List<ScoredEmbedding>> search(float[] queryEmbedding, String contentType,
+            String modelVersion, int topK) {
+        return search(queryEmbedding, contentType, modelVersion, topK, false);
+    }
+
+    /**
+     * Exact top-K by cosine similarity: every vector of the requested content
+     * type (or of the whole corpus) is scored with the
+     * {@link SimilarityKernel}. Same contract as {@link #search}.
+     */
+    public Optional<List<ScoredEmbedding>> exactSearch(float[] queryEmbedding, String contentType,
+            String modelVersion, int topK) {
+        return search(queryEmbedding, contentType, modelVersion, topK, true);
+    }
+
+    private Optional<List<ScoredEmbedding>> search(float[] queryEmbedding, String contentType,
+            String modelVersion, int topK, boolean exact) {
+        Snapshot current = snapshot;
+        if (current == null || !current.store().modelVersion().equals(modelVersion)
+                || queryEmbedding.length != current.store().dimensions()) {
+            return Optional.empty();
+        }
+        boolean allTypes = contentType == null || contentType.isBlank();
+        MappedEmbeddingStore store = current.store();
+        MappedEmbeddingStore.Range ordinals = allTypes ? store.all() : store.range(contentType);
+        if (ordinals == null) {
+            return Optional.of(List.of());
+        }
+        // No graph: the set is small enough to scan
+        HnswIndex index = allTypes ? current.all() : current.byType().get(contentType);
+        float[] unitQuery = MappedEmbeddingStore.unit(queryEmbedding);
+        Int8VectorSpace quantized = current.quantized();
+        List<HnswIndex.Hit> hits;
+        if (exact) {
+            hits = scan(ordinals, exactSimilarity(store, unitQuery), topK);
+        } else if (quantized == null) {
+            hits = index == null
+                    ? scan(ordinals, exactSimilarity(store, unitQuery), topK)
+                    : index.search(unitQuery, topK, efSearch);
+        } else {
+            int candidates = topK * rerankFactor;
+            hits = rerank(store, index == null
+                    ? scan(ordinals, quantized.scorer(unitQuery), candidates)
+                    : index.search(unitQuery, candidates, efSearch), unitQuery, topK);
+        }
+        List<ScoredEmbedding> results = new ArrayList<>(hits.size());
+        for (HnswIndex.Hit hit : hits) {
+            results.add(new ScoredEmbedding(copyOf(current.store(), hit.ordinal()), hit.similarity()));
+        }
+        return Optional.of(results);
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Recall and latency of each retrieval path against pgvector
+     * ({@code findTopKSimilarScored}) and against an exact in-memory float
+     * scan, over all content types.
+     *
+     * Queries are midpoints of two random stored vectors (fixed seed), so they
+     * fall between existing embeddings without calling the embedding API. If
+     * content_embeddings has an IVFFlat index, pgvector itself is approximate;
+     * compare against {@code recall_vs_exact} as well.
+     *
+     * @param queries Number of sample queries (1-1000)
+     * @param k       Results per query (1-100)
+     * @throws IllegalStateException if the index is not loaded
+     */
+    public RecallReport measureRecall(int queries, int k) {
+        if (queries < 1 || queries > 1000 || k < 1 || k > 100) {
+            throw new IllegalArgumentException("queries must be 1-1000 and k 1-100");
+        }
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Vector index is not loaded");
+        }
+        MappedEmbeddingStore store = current.store();
+        Int8VectorSpace quantized = current.quantized() != null
+                ? current.quantized()
+                : Int8VectorSpace.quantize(store);
+        String served = (current.all() != null ? "hnsw" : "scan")
+                + (current.quantized() != null ? " int8 + rerank (served)" : " float32 (served)");
+
+        Map<String, Tally> tallies = new LinkedHashMap<>();
+        for (String mode : List.of("pgvector", "exact float32 scan", "int8 scan", "int8 scan + rerank", served)) {
+            tallies.put(mode, new Tally());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int q = 0; q < queries; q++) {
+            float[] a = store.vector(random.nextInt(store.size()));
+            float[] b = store.vector(random.nextInt(store.size()));
+            for (int i = 0; i < a.length; i++) {
+                a[i] += b[i];
+            }
+            float[] query = MappedEmbeddingStore.unit(a);
+
+            long start = System.nanoTime();
+            Set<Long> pgvector = new HashSet<>();
+            embeddingRepository.findTopKSimilarScored(query, null, store.modelVersion(), k)
+                    .forEach(hit -> pgvector.add(hit.embedding().getEmbeddingId()));
+            long pgvectorNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Set<Long> exact = idsOf(store, scan(store.all(), exactSimilarity(store, query), k));
+            long exactNanos = System.nanoTime() - start;
+
+            tallies.get("pgvector").add(pgvector, pgvector, exact, pgvectorNanos);
+            tallies.get("exact float32 scan").add(exact, pgvector, exact, exactNanos);
+
+            start = System.nanoTime();
+            Set<Long> int8 = idsOf(store, scan(store.all(), quantized.scorer(query), k));
+            tallies.get("int8 scan").add(int8, pgvector, exact, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            Set<Long> reranked = idsOf(store, rerank(store,
+                    scan(store.all(), quantized.scorer(query), k * rerankFactor), query, k));
+            tallies.get("int8 scan + rerank").add(reranked, pgvector, exact, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            Set<Long> searched = new HashSet<>();
+            search(query, null, store.modelVersion(), k).orElse(List.of())
+                    .forEach(hit -> searched.add(hit.embedding().getEmbeddingId()));
+            tallies.get(served).add(searched, pgvector, exact, System.nanoTime() - start);
+        }
+
+        List<RecallReport.Mode> modes = new ArrayList<>();
+        tallies.forEach((mode, tally) -> modes.add(tally.toMode(mode, queries)));
+        return new RecallReport(queries, k, (long) store.size() * store.dimensions() * Float.BYTES,
+                quantized.bytes(), modes);
+    }
+
+    private MappedEmbeddingStore openOrWriteStore(String modelVersion, String fingerprint) throws IOException {
+        Path file = MappedEmbeddingStore.fileFor(storeDirectory, modelVersion, fingerprint);
+        if (Files.exists(file)) {
+            try {
+                MappedEmbeddingStore store = MappedEmbeddingStore.open(file);
+                if (store.modelVersion().equals(modelVersion) && store.fingerprint().equals(fingerprint)) {
+                    log.info("Mapped existing vector store {} ({} embeddings)", file, store.size());
+                    return store;
+                }
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable vector store {}: {}", file, e.getMessage());
+            }
+        }
+
+        List<ContentEmbedding> embeddings = embeddingRepository.findAllWithVectors(modelVersion);
+        if (embeddings.isEmpty()) {
+            return null;
+        }
+        MappedEmbeddingStore store = MappedEmbeddingStore.write(file, modelVersion, fingerprint, embeddings);
+        log.info("Wrote vector store {} ({} embeddings)", file, store.size());
+        return store;
+    }
+
+    /**
+     * HNSW graph over {@code range}, or null if it has at most
+     * {@code exactMaxSize} vectors and is scanned instead.
+     */
+    private HnswIndex graphFor(VectorSpace space, MappedEmbeddingStore.Range range) {
+        if (range.size() <= exactMaxSize) {
+            return null;
+        }
+        HnswIndex index = new HnswIndex(space, m, efConstruction);
+        for (int ordinal = range.from(); ordinal < range.to(); ordinal++) {
+            index.add(ordinal);
+        }
+        return index;
+    }
+
+    /**
+     * Exact similarity to {@code unitQuery} by ordinal. Each row is bulk-copied
+     * into a scratch array so the kernel runs over plain arrays; the function
+     * is not thread-safe.
+     */
+    private IntToDoubleFunction exactSimilarity(MappedEmbeddingStore store, float[] unitQuery) {
+        float[] row = new float[store.dimensions()];
+        return ordinal -> {
+            store.read(ordinal, row);
+            return kernel.dot(row, 0, unitQuery, 0, row.length);
+        };
+    }
+
+    /**
+     * Re-score approximate candidates exactly and keep the best {@code topK}.
+     */
+    private List<HnswIndex.Hit> rerank(MappedEmbeddingStore store, List<HnswIndex.Hit> candidates,
+            float[] unitQuery, int topK) {
+        IntToDoubleFunction similarity = exactSimilarity(store, unitQuery);
+        List<HnswIndex.Hit> hits = new ArrayList<>(candidates.size());
+        for (HnswIndex.Hit candidate : candidates) {
+            hits.add(new HnswIndex.Hit(candidate.ordinal(), similarity.applyAsDouble(candidate.ordinal())));
+        }
+        hits.sort(BEST_FIRST);
+        return hits.size() > topK ? List.copyOf(hits.subList(0, topK)) : hits;
+    }
+
+    /**
+     * Brute-force top-K over a range of ordinals, best first; ties keep store
+     * order.
+     */
+    private static List<HnswIndex.Hit> scan(MappedEmbeddingStore.Range ordinals,
+            IntToDoubleFunction similarityOf, int topK) {
+        if (topK <= 0) {
+            return List.of();
+        }
+        PriorityQueue<HnswIndex.Hit> best = new PriorityQueue<>(Math.max(1, Math.min(topK, ordinals.size())),
+                Comparator.comparingDouble(HnswIndex.Hit::similarity)
+                        .thenComparing(Comparator.comparingInt(HnswIndex.Hit::ordinal).reversed()));
+        for (int ordinal = ordinals.from(); ordinal < ordinals.to(); ordinal++) {
+            double similarity = similarityOf.applyAsDouble(ordinal);
+            if (best.size() < topK) {
+                best.add(new HnswIndex.Hit(ordinal, similarity));
+            } else if (similarity > best.peek().similarity()) {
+                best.poll();
+                best.add(new HnswIndex.Hit(ordinal, similarity));
+            }
+        }
+        List<HnswIndex.Hit> hits = new ArrayList<>(best);
+        hits.sort(BEST_FIRST);
+        return hits;
+    }
+
+    private static Set<Long> idsOf(MappedEmbeddingStore store, List<HnswIndex.Hit> hits) {
+        Set<Long> ids = new HashSet<>();
+        for (HnswIndex.Hit hit : hits) {
+            ids.add(store.record(hit.ordinal()).getEmbeddingId());
+        }
+        return ids;
+    }
+
+    /**
+     * Best effort: a file still mapped by an older snapshot may not be
+     * deletable on some platforms; it is retried on the next rebuild.
+     */
+    private void deleteStaleStores(Path current) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(storeDirectory, "*.vec")) {
+            for (Path file : files) {
+                if (!file.equals(current)) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        log.debug("Could not delete stale vector store {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Could not list vector store directory {}: {}", storeDirectory, e.getMessage());
+        }
+    }
+
+    private static ContentEmbedding copyOf(MappedEmbeddingStore store, int ordinal) {
+        ContentEmbedding record = store.record(ordinal);
+        ContentEmbedding copy = new ContentEmbedding();
+        copy.setEmbeddingId(record.getEmbeddingId());
+        copy.setContentType(record.getContentType());
+        copy.setContentId(record.getContentId());
+        copy.setTextContent(record.getTextContent());
+        copy.setModelVersion(record.getModelVersion());
+        copy.setCreatedAt(record.getCreatedAt());
+        copy.setUpdatedAt(record.getUpdatedAt());
+        return copy;
+    }
+
+    /**
+     * Output of {@link #measureRecall}.
+     *
+     * @param floatBytes Bytes of float32 vectors (memory-mapped store)
+     * @param int8Bytes  Heap bytes of the int8 quantized vectors
+     */
+    public record RecallReport(int queries, int k, long floatBytes, long int8Bytes, List<Mode> modes) {
+
+        /**
+         * @param recallVsPgvector Mean fraction of pgvector's top-k returned
+         * @param recallVsExact    Mean fraction of the exact top-k returned
+         * @param meanMicros       Mean latency per query
+         */
+        public record Mode(String mode, double recallVsPgvector, double recallVsExact, double meanMicros) {
+        }
+    }
+
+    private static final class Tally {
+
+        private double recallVsPgvector;
+        private double recallVsExact;
+        private long nanos;
+
+        void add(Set<Long> found, Set<Long> pgvector, Set<Long> exact, long elapsedNanos) {
+            recallVsPgvector += overlap(found, pgvector);
+            recallVsExact += overlap(found, exact);
+            nanos += elapsedNanos;
+        }
+
+        RecallReport.Mode toMode(String mode, int queries) {
+            return new RecallReport.Mode(mode, recallVsPgvector / queries, recallVsExact / queries,
+                    nanos / 1_000.0 / queries);
+        }
+
+        private static double overlap(Set<Long> found, Set<Long> truth) {
+            if (truth.isEmpty()) {
+                return 1;
+            }
+            int hits = 0;
+            for (Long id : found) {
+                if (truth.contains(id)) {
+                    hits++;
+                }
+            }
+            return (double) hits / truth.size();
+        }
+    }
+
+    /**
+     * @param all    Graph over all rows, or null if they are scanned
+     * @param byType Graphs of the content types too large to scan
+     */
+    private record Snapshot(MappedEmbeddingStore store,
+            Int8VectorSpace quantized,
+            HnswIndex all,
+            Map<String, HnswIndex> byType) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.harmadavtian.disneyapp.service.vector;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Unit-length vectors addressed by ordinal, as seen by {@link HnswIndex}.
+ */
+public interface VectorSpace {
+
+    int dimensions();
+
+    /**
+     * Dot product of two stored vectors (cosine similarity, as both are unit
+     * length).
+     */
+    double dot(int a, int b);
+
+    /**
+     * Dot product of a stored vector with a unit-length query.
+     */
+    double dot(int ordinal, float[] unitQuery);
+
+    /**
+     * Similarity to one query by ordinal, for scoring many vectors against the
+     * same query. Implementations may prepare the query once (e.g. quantize
+     * it); the default delegates to {@link #dot(int, float[])}.
+     */
+    default IntToDoubleFunction scorer(float[] unitQuery) {
+        return ordinal -> dot(ordinal, unitQuery);
+    }
+}
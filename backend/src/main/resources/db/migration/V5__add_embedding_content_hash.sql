@@ -0,0 +1,12 @@
+-- V5: Content hash for incremental re-embedding
+-- SHA-256 (hex) of the text that was embedded. The embedding job re-embeds a
+-- row only when the hash of the current entity text differs.
+
+ALTER TABLE content_embeddings ADD COLUMN content_hash CHAR(64);
+
+-- text_content is exactly the embedded text, so existing rows can be hashed
+-- in place and are not re-embedded on the next run
+UPDATE content_embeddings
+SET content_hash = encode(sha256(convert_to(text_content, 'UTF8')), 'hex');
+
+ALTER TABLE content_embeddings ALTER COLUMN content_hash SET NOT NULL;